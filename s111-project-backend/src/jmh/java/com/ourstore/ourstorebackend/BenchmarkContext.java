@@ -0,0 +1,61 @@
+package com.ourstore.ourstorebackend;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.UserRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the application without a web server for benchmarks that need the database.
+ * It uses a scratch {@code ourstore_bench} schema on localhost by default; pass
+ * {@code -jvmArgsAppend -Dspring.datasource.url=...} (and username/password) in
+ * {@code jmh.args} to point it elsewhere.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    private static final String DEFAULT_URL = "jdbc:mysql://localhost:3306/ourstore_bench"
+            + "?createDatabaseIfNotExist=true&useSSL=false&allowPublicKeyRetrieval=true&rewriteBatchedStatements=true";
+
+    // Passed as command line arguments so they win over application.properties
+    public static ConfigurableApplicationContext start(String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + System.getProperty("spring.datasource.url", DEFAULT_URL),
+                "--spring.jpa.show-sql=false",
+                "--ourstore.worker-id=0",
+                "--logging.level.root=WARN"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(OurstoreBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+    }
+
+    public static Long createUser(ConfigurableApplicationContext context) {
+        User user = new User();
+        user.setUsername("bench-" + UUID.randomUUID());
+        user.setPassword("bench");
+        return context.getBean(UserRepository.class).save(user).getId();
+    }
+
+    public static Long createProduct(ConfigurableApplicationContext context, int stock) {
+        Product product = new Product();
+        product.setName("Bench product");
+        product.setSku("BENCH-" + UUID.randomUUID());
+        product.setPrice(new BigDecimal("19.99"));
+        product.setStockQuantity(stock);
+        product.setActive(true);
+        return context.getBean(ProductRepository.class).save(product).getId();
+    }
+}
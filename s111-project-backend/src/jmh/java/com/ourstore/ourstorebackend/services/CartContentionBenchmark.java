@@ -0,0 +1,85 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.BenchmarkContext;
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of versioned batch changes to one shared cart, with and without an
+ * Idempotency-Key, as more clients contend for it. Every writer conflicts with every
+ * other, so this measures {@link ConflictRetry}; {@code failed} counts the requests
+ * that still lost after their last attempt. Run once per thread count:
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="CartContentionBenchmark -t 4"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class CartContentionBenchmark {
+
+    private static final String SCOPE = "POST /api/cart/bench/items/batch";
+
+    @Param({"false", "true"})
+    public boolean keyed;
+
+    private ConfigurableApplicationContext context;
+    private IdempotencyService idempotencyService;
+    private CartStore cartStore;
+    private Long userId;
+    private List<CartBatchRequest.Operation> operations;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long failed;
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        idempotencyService = context.getBean(IdempotencyService.class);
+        cartStore = context.getBean(CartStore.class);
+        userId = BenchmarkContext.createUser(context);
+        Long productId = BenchmarkContext.createProduct(context, 1_000);
+        operations = List.of(new CartBatchRequest.Operation(CartBatchRequest.Type.ADD, productId, 1));
+        cartStore.apply(userId, operations);
+    }
+
+    @Benchmark
+    public Object batchAdd(Outcomes outcomes) {
+        String key = keyed ? UUID.randomUUID().toString() : null;
+        try {
+            return idempotencyService.execute(key, SCOPE, operations, () -> cartStore.apply(userId, operations));
+        } catch (ConcurrencyFailureException e) {
+            outcomes.failed++;
+            return e;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
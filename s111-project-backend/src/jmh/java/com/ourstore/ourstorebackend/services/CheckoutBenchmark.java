@@ -0,0 +1,78 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.BenchmarkContext;
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout latency with the order and order item inserts sent one by one (JDBC batch
+ * size 1) and batched as configured (50). Each invocation checks out a freshly
+ * filled cart of {@code lines} products against MySQL; see {@link BenchmarkContext}.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args=CheckoutBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "50"})
+    public int jdbcBatchSize;
+
+    @Param({"20"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private CheckoutService checkoutService;
+    private CartStore cartStore;
+    private Long userId;
+    private List<CartBatchRequest.Operation> operations;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + jdbcBatchSize);
+        checkoutService = context.getBean(CheckoutService.class);
+        cartStore = context.getBean(CartStore.class);
+        userId = BenchmarkContext.createUser(context);
+        operations = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Long productId = BenchmarkContext.createProduct(context, 1_000_000_000);
+            operations.add(new CartBatchRequest.Operation(CartBatchRequest.Type.ADD, productId, 1));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        cartStore.apply(userId, operations);
+    }
+
+    @Benchmark
+    public Long placeOrder() {
+        return checkoutService.placeOrder(userId).orElseThrow().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
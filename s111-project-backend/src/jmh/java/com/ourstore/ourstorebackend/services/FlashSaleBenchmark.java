@@ -0,0 +1,79 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.BenchmarkContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of concurrent one-unit checkouts of a single hot product, its stock held in
+ * the product row ({@code shards = 0}) or spread over {@link FlashSaleService} shards.
+ * Every thread buys with its own cart. Run once per thread count:
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="FlashSaleBenchmark -t 16"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class FlashSaleBenchmark {
+
+    @Param({"0", "1", "16"})
+    public int shards;
+
+    private ConfigurableApplicationContext context;
+    private CheckoutService checkoutService;
+    private CartStore cartStore;
+    private Long productId;
+
+    @State(Scope.Thread)
+    public static class Buyer {
+        private Long userId;
+
+        @Setup(Level.Trial)
+        public void createUser(FlashSaleBenchmark benchmark) {
+            userId = BenchmarkContext.createUser(benchmark.context);
+        }
+
+        @Setup(Level.Invocation)
+        public void fillCart(FlashSaleBenchmark benchmark) {
+            benchmark.cartStore.addItem(userId, benchmark.productId, 1);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = BenchmarkContext.start();
+        checkoutService = context.getBean(CheckoutService.class);
+        cartStore = context.getBean(CartStore.class);
+        productId = BenchmarkContext.createProduct(context, 1_000_000_000);
+        if (shards > 0) {
+            context.getBean(FlashSaleService.class).enable(productId, shards);
+        }
+    }
+
+    @Benchmark
+    public Long placeOrder(Buyer buyer) {
+        return checkoutService.placeOrder(buyer.userId).orElseThrow().getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+}
@@ -0,0 +1,82 @@
+package com.ourstore.ourstorebackend.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling a cart of {@code lines} lines the way the cart and checkout paths do, in
+ * {@link Money} cents, against the {@link BigDecimal} arithmetic it replaced. The
+ * {@code cents} variant starts from prices already in cents, the floor if prices were
+ * ever held as longs end to end. Run with {@code -prof gc} for allocations.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args="MoneyBenchmark -prof gc"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private BigDecimal[] prices;
+    private long[] priceCents;
+    private int[] quantities;
+
+    @Setup(Level.Trial)
+    public void createCart() {
+        Random random = new Random(42);
+        prices = new BigDecimal[lines];
+        priceCents = new long[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            prices[i] = BigDecimal.valueOf(100 + random.nextInt(100_000), Money.SCALE);
+            priceCents[i] = Money.toCents(prices[i]);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(prices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal money() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Money.add(total, Money.lineTotal(prices[i], quantities[i]));
+        }
+        return Money.toBigDecimal(total);
+    }
+
+    @Benchmark
+    public long cents() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Money.add(total, Money.times(priceCents[i], quantities[i]));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Typeahead lookup latency at 100k and 1M product names. Setup prints the trie's node
+ * count and the heap it retains, measured as the used heap after GC before and after
+ * building it.
+ * <p>
+ * {@code mvn -Pjmh test-compile exec:exec -Djmh.args=SuggestionTrieBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class SuggestionTrieBenchmark {
+
+    private static final String[] BRANDS = {"Apple", "Samsung", "Sony", "Logitech", "Nike", "Canon", "Dell",
+            "Lenovo", "Bose", "Philips", "Asus", "Garmin", "Anker", "Xiaomi", "Adidas", "Braun"};
+    private static final String[] WORDS = {"wireless", "pro", "max", "mini", "ultra", "smart", "portable",
+            "gaming", "noise", "cancelling", "headphones", "keyboard", "mouse", "monitor", "laptop", "phone",
+            "watch", "camera", "speaker", "charger", "running", "shoes", "stand", "case", "lite", "air"};
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "1000000"})
+    public int names;
+
+    private SuggestionTrie trie;
+    private String[] shortPrefixes;
+    private String[] wordPrefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void build() {
+        Random random = new Random(42);
+        long before = usedHeapAfterGc();
+        trie = new SuggestionTrie(null);
+        for (long id = 1; id <= names; id++) {
+            trie.upsert(product(id, random));
+        }
+        long retained = usedHeapAfterGc() - before;
+        System.out.printf("%n[footprint] names=%d nodes=%d retained=%d MB (%d bytes/name)%n",
+                names, trie.nodeCount(), retained >> 20, retained / names);
+
+        shortPrefixes = new String[QUERIES];
+        wordPrefixes = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String word = random.nextBoolean() ? pick(BRANDS, random) : pick(WORDS, random);
+            shortPrefixes[i] = word.substring(0, 2);
+            wordPrefixes[i] = word + " " + pick(WORDS, random).charAt(0);
+        }
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> shortPrefix() {
+        return trie.suggest(shortPrefixes[next++ & (QUERIES - 1)], 8);
+    }
+
+    @Benchmark
+    public List<SuggestionTrie.Suggestion> wordPrefix() {
+        return trie.suggest(wordPrefixes[next++ & (QUERIES - 1)], 8);
+    }
+
+    private static Product product(long id, Random random) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(pick(BRANDS, random) + " " + pick(WORDS, random) + " " + pick(WORDS, random) + " "
+                + pick(WORDS, random) + " " + (100 + random.nextInt(9900)));
+        product.setAverageRating(random.nextInt(51) / 10.0);
+        product.setReviewCount(random.nextInt(500));
+        product.setActive(true);
+        return product;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -83,9 +84,7 @@ public class OurstoreBackendApplication {
                         makeProduct("Nike Air Zoom Pegasus", "Comfortable running shoes.", 129.00, 200, "NAZP", "https://picsum.photos/seed/pegasus/400/300"),
                         makeProduct("Instant Pot Duo", "7-in-1 electric pressure cooker.", 99.00, 110, "IPDUO", "https://picsum.photos/seed/instantpot/400/300")
                 };
-                for (Product p : samples) {
-                    productRepository.save(p);
-                }
+                productRepository.saveAll(Arrays.asList(samples));
             }
         };
     }
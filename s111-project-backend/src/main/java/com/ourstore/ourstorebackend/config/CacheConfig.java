@@ -0,0 +1,49 @@
+package com.ourstore.ourstorebackend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCT_DETAILS = "productDetails";
+    public static final String CATEGORY_LIST = "categoryList";
+    public static final String CATEGORY_DETAILS = "categoryDetails";
+    public static final String IDEMPOTENCY_RESPONSES = "idempotencyResponses";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${ourstore.cache.products.max-size:10000}") long productMaxSize,
+                                     @Value("${ourstore.cache.products.ttl:10m}") Duration productTtl,
+                                     @Value("${ourstore.cache.categories.max-size:1000}") long categoryMaxSize,
+                                     @Value("${ourstore.cache.categories.ttl:30m}") Duration categoryTtl,
+                                     @Value("${ourstore.idempotency.cache.max-size:10000}") long idempotencyMaxSize,
+                                     @Value("${ourstore.idempotency.ttl:24h}") Duration idempotencyTtl) {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        // Only the caches registered here exist; a typo in a cache name fails fast
+        manager.setCacheNames(List.of());
+        manager.registerCustomCache(PRODUCT_DETAILS, boundedCache(productMaxSize, productTtl));
+        manager.registerCustomCache(CATEGORY_LIST, boundedCache(1, categoryTtl));
+        manager.registerCustomCache(CATEGORY_DETAILS, boundedCache(categoryMaxSize, categoryTtl));
+        // Local copy of completed idempotent responses; the database table is the source of truth
+        manager.registerCustomCache(IDEMPOTENCY_RESPONSES, boundedCache(idempotencyMaxSize, idempotencyTtl));
+        return manager;
+    }
+
+    private static Cache<Object, Object> boundedCache(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
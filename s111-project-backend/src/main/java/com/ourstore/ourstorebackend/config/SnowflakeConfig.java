@@ -0,0 +1,41 @@
+package com.ourstore.ourstorebackend.config;
+
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+/**
+ * Hands {@link SnowflakeIds} this instance's worker id from {@code ourstore.worker-id}
+ * ({@code OURSTORE_WORKER_ID} in the environment). Two instances with the same id can
+ * generate the same primary keys, so startup fails when it is missing; only the dev
+ * profile falls back to 0.
+ */
+@Configuration
+public class SnowflakeConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeConfig.class);
+
+    public SnowflakeConfig(@Value("${ourstore.worker-id:}") String workerId, Environment environment) {
+        if (!workerId.isBlank()) {
+            SnowflakeIds.configure(Long.parseLong(workerId.trim()));
+        } else if (environment.acceptsProfiles(Profiles.of("dev"))) {
+            log.warn("ourstore.worker-id is not set; using worker id 0 for the dev profile");
+            SnowflakeIds.configure(0);
+        } else {
+            throw new IllegalStateException("Set ourstore.worker-id (OURSTORE_WORKER_ID) to a number from 0 to 31 "
+                    + "that no other running instance uses, or run with the dev profile");
+        }
+    }
+
+    // Hibernate assigns ids on persist, so the worker id is set before it starts
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor snowflakeWorkerIdDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor(SnowflakeConfig.class);
+    }
+}
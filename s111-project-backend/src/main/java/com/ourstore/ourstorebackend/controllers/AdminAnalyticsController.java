@@ -0,0 +1,126 @@
+package com.ourstore.ourstorebackend.controllers;
+
+import com.ourstore.ourstorebackend.dto.DailySales;
+import com.ourstore.ourstorebackend.dto.SalesTotal;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.SalesDailyCategoryRepository;
+import com.ourstore.ourstorebackend.repositories.SalesDailyProductRepository;
+import com.ourstore.ourstorebackend.repositories.SalesDailyRepository;
+import com.ourstore.ourstorebackend.services.SalesRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Sales dashboard. Reads only the pre-aggregated daily rollups, never orders or order
+ * items, so every query touches at most a few rows per day in the range. Date ranges
+ * are inclusive and default to the last 30 days.
+ */
+@RestController
+@RequestMapping("/api/admin/analytics/sales")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminAnalyticsController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private SalesDailyRepository salesDailyRepository;
+
+    @Autowired
+    private SalesDailyProductRepository salesDailyProductRepository;
+
+    @Autowired
+    private SalesDailyCategoryRepository salesDailyCategoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public List<DailySales> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return salesDailyRepository.findDailySales(from != null ? from : end.minusDays(29), end);
+    }
+
+    @GetMapping("/products")
+    public List<Map<String, Object>> getTopProducts(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        List<SalesTotal> totals = salesDailyProductRepository.findTopByRevenue(
+                from != null ? from : end.minusDays(29), end, Limit.of(clamp(limit)));
+        Map<Long, String> names = productRepository.findAllById(ids(totals)).stream()
+                .collect(Collectors.toMap(Product::getId, Product::getName));
+        return withNames(totals, names::get);
+    }
+
+    @GetMapping("/categories")
+    public List<Map<String, Object>> getTopCategories(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        List<SalesTotal> totals = salesDailyCategoryRepository.findTopByRevenue(
+                from != null ? from : end.minusDays(29), end, Limit.of(clamp(limit)));
+        Map<Long, String> names = categoryRepository.findAllById(ids(totals)).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        // Category 0 collects products without a category
+        return withNames(totals, id -> id == 0 ? "Uncategorized" : names.get(id));
+    }
+
+    // Recomputes the rollups from raw orders; heavy, so only for repairs and first setup
+    @PostMapping("/rebuild")
+    public Map<String, Object> rebuildRollups() {
+        long started = System.currentTimeMillis();
+        salesRollupService.rebuild();
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", "Sales rollups rebuilt");
+        resp.put("elapsedMillis", System.currentTimeMillis() - started);
+        return resp;
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static List<Long> ids(List<SalesTotal> totals) {
+        return totals.stream().map(SalesTotal::id).toList();
+    }
+
+    private static List<Map<String, Object>> withNames(List<SalesTotal> totals, Function<Long, String> nameOf) {
+        List<Map<String, Object>> rows = new ArrayList<>(totals.size());
+        for (SalesTotal total : totals) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", total.id());
+            row.put("name", nameOf.apply(total.id()));
+            row.put("revenue", total.revenue());
+            row.put("units", total.units());
+            row.put("orderCount", total.orderCount());
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,13 +1,29 @@
 package com.ourstore.ourstorebackend.controllers;
 
+import com.ourstore.ourstorebackend.dto.AdminOrderDetail;
+import com.ourstore.ourstorebackend.dto.AdminOrderPage;
+import com.ourstore.ourstorebackend.dto.BulkStatusRequest;
+import com.ourstore.ourstorebackend.dto.BulkStatusResult;
+import com.ourstore.ourstorebackend.dto.OrderFilter;
 import com.ourstore.ourstorebackend.entities.Order;
 import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import com.ourstore.ourstorebackend.services.ExportService;
+import com.ourstore.ourstorebackend.services.OrderHistoryService;
+import com.ourstore.ourstorebackend.services.OrderItemSnapshotBackfill;
+import com.ourstore.ourstorebackend.services.OrderStatusService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -19,24 +35,71 @@ public class AdminOrderController {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private OrderItemSnapshotBackfill orderItemSnapshotBackfill;
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public AdminOrderPage searchOrders(OrderFilter filter,
+                                       @RequestParam(defaultValue = "orderDate") String sort,
+                                       @RequestParam(defaultValue = "desc") String direction,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer size) {
+        return orderRepository.search(filter, sort, direction, cursor, size);
+    }
+
+    // from and to are inclusive order dates
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Order.OrderStatus status) {
+        ExportService.Format exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        LocalDateTime fromTime = from != null ? from.atStartOfDay() : null;
+        LocalDateTime toTime = to != null ? to.plusDays(1).atStartOfDay() : null;
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"orders." + format.toLowerCase(Locale.ROOT) + "\"")
+                .body(out -> exportService.exportOrders(exportFormat, fromTime, toTime, status, out));
     }
 
     @GetMapping("/{id}")
-    public Order getOrder(@PathVariable Long id) {
-        return orderRepository.findById(id).orElseThrow();
+    public AdminOrderDetail getOrder(@PathVariable Long id) {
+        return orderHistoryService.getAdminOrderDetail(id);
+    }
+
+    // Normally runs on startup; this re-runs it on demand
+    @PostMapping("/snapshot-backfill")
+    public Map<String, Object> backfillItemSnapshots() {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", "Order item snapshots backfilled");
+        resp.put("itemsUpdated", orderItemSnapshotBackfill.backfill());
+        return resp;
+    }
+
+    // Moves many orders to one status; each id gets its own outcome in the response
+    @PutMapping("/status")
+    public BulkStatusResult updateOrderStatuses(@RequestBody BulkStatusRequest request) {
+        return orderStatusService.transition(request.ids(), request.status());
     }
 
     @PutMapping("/{id}/status")
     public Map<String, Object> updateOrderStatus(@PathVariable Long id,
                                                  @RequestBody Map<String, String> payload) {
         String statusStr = payload.get("status");
-        Order order = orderRepository.findById(id).orElseThrow();
-        Order.OrderStatus newStatus = Order.OrderStatus.valueOf(statusStr);
-        order.setStatus(newStatus);
-        orderRepository.save(order);
+        Order order = orderStatusService.updateStatus(id, Order.OrderStatus.valueOf(statusStr));
         Map<String, Object> resp = new HashMap<>();
         resp.put("message", "Order status updated");
         resp.put("orderId", order.getId());
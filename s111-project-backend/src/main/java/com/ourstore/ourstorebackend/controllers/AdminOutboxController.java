@@ -0,0 +1,66 @@
+package com.ourstore.ourstorebackend.controllers;
+
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import com.ourstore.ourstorebackend.entities.OutboxLease;
+import com.ourstore.ourstorebackend.repositories.OutboxEventRepository;
+import com.ourstore.ourstorebackend.repositories.OutboxLeaseRepository;
+import com.ourstore.ourstorebackend.services.OutboxDispatcher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@CrossOrigin(origins = "*")
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminOutboxController {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxLeaseRepository outboxLeaseRepository;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @GetMapping("/stats")
+    public Map<String, Object> getOutboxStats() {
+        Map<String, Object> resp = new LinkedHashMap<>();
+        LocalDateTime oldestPending = outboxEventRepository.findOldestCreatedAt(OutboxEvent.Status.PENDING)
+                .orElse(null);
+        resp.put("pending", outboxEventRepository.countByStatus(OutboxEvent.Status.PENDING));
+        resp.put("failed", outboxEventRepository.countByStatus(OutboxEvent.Status.FAILED));
+        resp.put("oldestPendingAt", oldestPending);
+        // How far behind the dispatcher is: age of the oldest event not yet handled
+        resp.put("lagMillis", oldestPending == null ? 0
+                : Math.max(0, Duration.between(oldestPending, LocalDateTime.now()).toMillis()));
+
+        Map<String, Object> replica = new LinkedHashMap<>();
+        replica.put("owner", outboxDispatcher.owner());
+        replica.put("ownedPartitions", outboxDispatcher.ownedPartitions());
+        replica.put("dispatched", outboxDispatcher.dispatchedCount());
+        replica.put("retried", outboxDispatcher.retryCount());
+        replica.put("failed", outboxDispatcher.failedCount());
+        replica.put("lastPollAt", outboxDispatcher.lastPollAt());
+        resp.put("replica", replica);
+
+        List<Map<String, Object>> leases = new ArrayList<>();
+        for (OutboxLease lease : outboxLeaseRepository.findAll()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("partition", lease.getPartitionNo());
+            entry.put("owner", lease.getOwner());
+            entry.put("leaseUntil", lease.getLeaseUntil());
+            leases.add(entry);
+        }
+        resp.put("leases", leases);
+        return resp;
+    }
+}
@@ -1,11 +1,29 @@
 package com.ourstore.ourstorebackend.controllers;
 
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.ImportReport;
+import com.ourstore.ourstorebackend.dto.ProductFilter;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
 import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.ProductStockShard;
 import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.services.CatalogService;
+import com.ourstore.ourstorebackend.services.ExportService;
+import com.ourstore.ourstorebackend.services.FlashSaleService;
+import com.ourstore.ourstorebackend.services.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/admin/products")
@@ -15,31 +33,92 @@ public class AdminProductController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public CursorPage<ProductSummary> getAllProducts(ProductFilter filter,
+                                              @RequestParam(defaultValue = "id") String sort,
+                                              @RequestParam(defaultValue = "asc") String direction,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return productRepository.findPage(filter, sort, direction, cursor, size);
     }
 
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
-        return productRepository.save(product);
+        return catalogService.saveProduct(product);
     }
 
     @PutMapping("/{id}")
     public Product updateProduct(@PathVariable Long id, @RequestBody Product updated) {
-        Product existing = productRepository.findById(id).orElseThrow();
-        existing.setName(updated.getName());
-        existing.setDescription(updated.getDescription());
-        existing.setPrice(updated.getPrice());
-        existing.setStockQuantity(updated.getStockQuantity());
-        existing.setSku(updated.getSku());
-        existing.setImageUrl(updated.getImageUrl());
-        existing.setActive(updated.getActive());
-        return productRepository.save(existing);
+        return catalogService.updateProduct(id, updated);
     }
 
     @DeleteMapping("/{id}")
     public void deleteProduct(@PathVariable Long id) {
-        productRepository.deleteById(id);
+        catalogService.deleteProduct(id);
+    }
+
+    // The body is read as a raw stream so large feeds are never buffered in memory
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ImportReport importProducts(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ProductImportService.Format format = contentType.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        return productImportService.importProducts(request.getInputStream(), format);
+    }
+
+    @GetMapping("/import")
+    public List<ImportReport> getRunningImports() {
+        return productImportService.runningImports();
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = ExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ExportService.Format.CSV
+                        ? MediaType.parseMediaType("text/csv")
+                        : MediaType.parseMediaType("application/x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + format.toLowerCase(Locale.ROOT) + "\"")
+                .body(out -> exportService.exportProducts(exportFormat, out));
+    }
+
+    @GetMapping("/{id}/flash-sale")
+    public List<ProductStockShard> getFlashSaleShards(@PathVariable Long id) {
+        return flashSaleService.getShards(id);
+    }
+
+    // Calling this again with a different count re-shards the current stock
+    @PostMapping("/{id}/flash-sale")
+    public Map<String, Object> enableFlashSale(@PathVariable Long id, @RequestBody Map<String, Integer> payload) {
+        List<ProductStockShard> shards = flashSaleService.enable(id, payload.getOrDefault("shards", 16));
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", "Flash sale enabled");
+        resp.put("productId", id);
+        resp.put("shards", shards);
+        return resp;
+    }
+
+    @DeleteMapping("/{id}/flash-sale")
+    public Map<String, Object> disableFlashSale(@PathVariable Long id) {
+        Product product = flashSaleService.disable(id);
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", "Flash sale disabled");
+        resp.put("productId", id);
+        resp.put("stockQuantity", product.getStockQuantity());
+        return resp;
     }
 }
@@ -1,11 +1,16 @@
 package com.ourstore.ourstorebackend.controllers;
 
-import com.ourstore.ourstorebackend.entities.*;
-import com.ourstore.ourstorebackend.repositories.*;
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.services.CartStore;
+import com.ourstore.ourstorebackend.services.IdempotencyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,126 +21,113 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = "*")
 public class CartController {
 
-    @Autowired
-    private ShoppingCartRepository shoppingCartRepository;
-
-    @Autowired
-    private CartItemRepository cartItemRepository;
+    private static final int MAX_BATCH_OPERATIONS = 100;
 
     @Autowired
-    private ProductRepository productRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private UserRepository userRepository;
+    private IdempotencyService idempotencyService;
 
     @GetMapping("/{userId}")
-    public Map<String, Object> getCart(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user);
-        if (cart == null) {
-            cart = new ShoppingCart();
-            cart.setUser(user);
-            cart = shoppingCartRepository.save(cart);
+    public ResponseEntity<Map<String, Object>> getCart(@PathVariable Long userId, WebRequest request) {
+        // Validate against timestamps alone before loading the cart and its items. The body
+        // embeds product names and prices, so a product edit has to change them too.
+        LocalDateTime lastUpdated = cartStore.lastUpdated(userId).orElse(null);
+        if (lastUpdated == null) {
+            return ResponseEntity.ok(convertCartToDto(cartStore.get(userId)));
         }
-        return convertCartToDto(cart);
+        LocalDateTime productsUpdated = cartStore.productsLastUpdated(userId).orElse(null);
+        return ConditionalGet.respond(request, ConditionalGet.etag("cart", userId, lastUpdated, productsUpdated),
+                ConditionalGet.latest(lastUpdated, productsUpdated), () -> convertCartToDto(cartStore.get(userId)));
     }
 
     @PostMapping("/{userId}/items")
-    public Map<String, Object> addItemToCart(@PathVariable Long userId, @RequestBody Map<String, Object> payload) {
+    public ResponseEntity<Object> addItemToCart(@PathVariable Long userId, @RequestBody Map<String, Object> payload,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                                String idempotencyKey) {
+        // A retried add must not add the quantity twice
+        return idempotencyService.execute(idempotencyKey, "POST /api/cart/" + userId + "/items", payload,
+                () -> addItem(userId, payload));
+    }
+
+    private Map<String, Object> addItem(Long userId, Map<String, Object> payload) {
         Long productId = ((Number) payload.get("productId")).longValue();
         int quantity = ((Number) payload.getOrDefault("quantity", 1)).intValue();
+        return convertCartToDto(cartStore.addItem(userId, productId, quantity));
+    }
 
-        User user = userRepository.findById(userId).orElseThrow();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user);
-        if (cart == null) {
-            cart = new ShoppingCart();
-            cart.setUser(user);
-        }
+    // For "buy it again" and moving a wishlist to the cart: one request, one save
+    @PostMapping("/{userId}/items/batch")
+    public ResponseEntity<Object> applyBatch(@PathVariable Long userId, @RequestBody CartBatchRequest request,
+                                             @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                             String idempotencyKey) {
+        List<CartBatchRequest.Operation> operations = validate(request);
+        return idempotencyService.execute(idempotencyKey, "POST /api/cart/" + userId + "/items/batch", request,
+                () -> convertCartToDto(cartStore.apply(userId, operations)));
+    }
 
-        Product product = productRepository.findById(productId).orElseThrow();
-
-        List<CartItem> items = cartItemRepository.findByShoppingCart(cart);
-        CartItem existingItem = items.stream()
-                .filter(ci -> ci.getProduct().getId().equals(productId))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem == null) {
-            CartItem newItem = new CartItem();
-            newItem.setShoppingCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            newItem.setUnitPrice(product.getPrice());
-            cart.getCartItems().add(newItem);
-        } else {
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
+    private static List<CartBatchRequest.Operation> validate(CartBatchRequest request) {
+        if (request == null || request.operations() == null || request.operations().isEmpty()) {
+            throw new IllegalArgumentException("operations must not be empty");
         }
-
-        recalculateCartTotals(cart);
-        cart = shoppingCartRepository.save(cart);
-        return convertCartToDto(cart);
+        if (request.operations().size() > MAX_BATCH_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_OPERATIONS + " operations per batch");
+        }
+        List<CartBatchRequest.Operation> operations = new ArrayList<>();
+        for (CartBatchRequest.Operation op : request.operations()) {
+            if (op == null || op.type() == null || op.productId() == null) {
+                throw new IllegalArgumentException("Every operation needs a type and a productId");
+            }
+            Integer quantity = op.quantity();
+            if (op.type() == CartBatchRequest.Type.ADD && quantity == null) {
+                // Defaults to one, like the single-item endpoint
+                quantity = 1;
+            }
+            if (op.type() == CartBatchRequest.Type.ADD && quantity < 1) {
+                throw new IllegalArgumentException("ADD quantity must be at least 1");
+            }
+            if (op.type() == CartBatchRequest.Type.SET && (quantity == null || quantity < 0)) {
+                throw new IllegalArgumentException("SET quantity must be 0 or more");
+            }
+            operations.add(new CartBatchRequest.Operation(op.type(), op.productId(), quantity));
+        }
+        return operations;
     }
 
     @DeleteMapping("/{userId}/items/{itemId}")
     public Map<String, Object> removeItem(@PathVariable Long userId, @PathVariable Long itemId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user);
-        if (cart == null) {
-            return null;
-        }
-        cart.getCartItems().removeIf(ci -> ci.getId().equals(itemId));
-        cartItemRepository.deleteById(itemId);
-        recalculateCartTotals(cart);
-        cart = shoppingCartRepository.save(cart);
-        return convertCartToDto(cart);
+        return cartStore.removeItem(userId, itemId).map(this::convertCartToDto).orElse(null);
     }
 
     @DeleteMapping("/{userId}")
     public Map<String, String> clearCart(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user);
-        if (cart != null) {
-            cart.getCartItems().clear();
-            cart.setTotalItems(0);
-            cart.setTotalPrice(BigDecimal.ZERO);
-            shoppingCartRepository.save(cart);
-        }
+        cartStore.clear(userId);
         Map<String, String> resp = new HashMap<>();
         resp.put("message", "Cart cleared");
         return resp;
     }
 
-    private void recalculateCartTotals(ShoppingCart cart) {
-        int totalItems = 0;
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        for (CartItem item : cart.getCartItems()) {
-            totalItems += item.getQuantity();
-            totalPrice = totalPrice.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-        }
-        cart.setTotalItems(totalItems);
-        cart.setTotalPrice(totalPrice);
-    }
-
-    private Map<String, Object> convertCartToDto(ShoppingCart cart) {
+    private Map<String, Object> convertCartToDto(CartView cart) {
         Map<String, Object> dto = new HashMap<>();
-        dto.put("id", cart.getId());
-        dto.put("totalItems", cart.getTotalItems());
-        dto.put("totalPrice", cart.getTotalPrice());
+        dto.put("id", cart.id());
+        dto.put("totalItems", cart.totalItems());
+        dto.put("totalPrice", cart.totalPrice());
 
-        dto.put("cartItems", cart.getCartItems().stream().map(ci -> {
+        dto.put("cartItems", cart.items().stream().map(ci -> {
             Map<String, Object> item = new HashMap<>();
-            item.put("id", ci.getId());
-            item.put("quantity", ci.getQuantity());
-            item.put("unitPrice", ci.getUnitPrice());
+            item.put("id", ci.id());
+            item.put("quantity", ci.quantity());
+            item.put("unitPrice", ci.unitPrice());
 
-            Product product = ci.getProduct();
+            CartView.Product product = ci.product();
             if (product != null) {
                 Map<String, Object> productDto = new HashMap<>();
-                productDto.put("id", product.getId());
-                productDto.put("name", product.getName());
-                productDto.put("description", product.getDescription());
-                productDto.put("price", product.getPrice());
-                productDto.put("imageUrl", product.getImageUrl());
+                productDto.put("id", product.id());
+                productDto.put("name", product.name());
+                productDto.put("description", product.description());
+                productDto.put("price", product.price());
+                productDto.put("imageUrl", product.imageUrl());
                 item.put("product", productDto);
             }
             return item;
@@ -1,10 +1,15 @@
 package com.ourstore.ourstorebackend.controllers;
 
+import com.ourstore.ourstorebackend.dto.CategoryDetail;
+import com.ourstore.ourstorebackend.dto.CategorySummary;
+import com.ourstore.ourstorebackend.dto.Freshness;
 import com.ourstore.ourstorebackend.entities.Category;
-import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.services.CatalogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,38 +19,40 @@ import java.util.List;
 public class CategoryController {
 
     @Autowired
-    private CategoryRepository categoryRepository;
+    private CatalogService catalogService;
 
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+    public ResponseEntity<List<CategorySummary>> getAllCategories(WebRequest request) {
+        Freshness freshness = catalogService.getCategoryFreshness();
+        return ConditionalGet.respond(request,
+                ConditionalGet.etag("categories", freshness.count(), freshness.lastUpdated()),
+                freshness.lastUpdated(), catalogService::getCategories);
     }
 
     @GetMapping("/{id}")
-    public Category getCategory(@PathVariable Long id) {
-        return categoryRepository.findById(id).orElseThrow();
+    public ResponseEntity<CategoryDetail> getCategory(@PathVariable Long id, WebRequest request) {
+        CategoryDetail detail = catalogService.getCategoryDetail(id);
+        // The product count is part of the body but does not move lastUpdated
+        return ConditionalGet.respond(request,
+                ConditionalGet.etag(detail.id(), detail.lastUpdated(), detail.productCount()),
+                detail.lastUpdated(), () -> detail);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public Category createCategory(@RequestBody Category category) {
-        return categoryRepository.save(category);
+        return catalogService.saveCategory(category);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/{id}")
     public Category updateCategory(@PathVariable Long id, @RequestBody Category updated) {
-        Category existing = categoryRepository.findById(id).orElseThrow();
-        existing.setName(updated.getName());
-        existing.setDescription(updated.getDescription());
-        existing.setImageUrl(updated.getImageUrl());
-        existing.setActive(updated.getActive());
-        return categoryRepository.save(existing);
+        return catalogService.updateCategory(id, updated);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public void deleteCategory(@PathVariable Long id) {
-        categoryRepository.deleteById(id);
+        catalogService.deleteCategory(id);
     }
 }
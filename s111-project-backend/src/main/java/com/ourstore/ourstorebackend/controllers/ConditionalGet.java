@@ -0,0 +1,65 @@
+package com.ourstore.ourstorebackend.controllers;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support driven by the lastUpdated columns. Validators are computed
+ * before the body, so a matching If-None-Match / If-Modified-Since answers 304 without
+ * building or serializing the representation.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    static String etag(Object... parts) {
+        StringBuilder tag = new StringBuilder("W/\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                tag.append('-');
+            }
+            Object part = parts[i];
+            tag.append(part instanceof LocalDateTime time ? Long.toHexString(micros(time)) : String.valueOf(part));
+        }
+        return tag.append('"').toString();
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, LocalDateTime lastModified,
+                                         Supplier<T> body) {
+        long lastModifiedMillis = lastModified == null ? -1 : toInstant(lastModified).toEpochMilli();
+        // Revalidate on every use; without an explicit policy the security filter adds no-store
+        if (request.checkNotModified(etag, lastModifiedMillis)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body.get());
+    }
+
+    // The latest of the given timestamps, skipping nulls; null if there are none
+    static LocalDateTime latest(LocalDateTime... times) {
+        LocalDateTime latest = null;
+        for (LocalDateTime time : times) {
+            if (time != null && (latest == null || time.isAfter(latest))) {
+                latest = time;
+            }
+        }
+        return latest;
+    }
+
+    // The timestamps are written with LocalDateTime.now(), so they are in the JVM's zone
+    private static Instant toInstant(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static long micros(LocalDateTime time) {
+        Instant instant = toInstant(time);
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+}
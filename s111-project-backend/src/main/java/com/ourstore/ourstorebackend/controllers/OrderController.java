@@ -1,15 +1,18 @@
 package com.ourstore.ourstorebackend.controllers;
 
-import com.ourstore.ourstorebackend.entities.*;
-import com.ourstore.ourstorebackend.repositories.*;
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.OrderSummary;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.services.CheckoutService;
+import com.ourstore.ourstorebackend.services.IdempotencyService;
+import com.ourstore.ourstorebackend.services.OrderHistoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -17,67 +20,36 @@ import java.util.Map;
 public class OrderController {
 
     @Autowired
-    private OrderRepository orderRepository;
+    private CheckoutService checkoutService;
 
     @Autowired
-    private OrderItemRepository orderItemRepository;
+    private IdempotencyService idempotencyService;
 
     @Autowired
-    private ShoppingCartRepository shoppingCartRepository;
-
-    @Autowired
-    private CartItemRepository cartItemRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private OrderHistoryService orderHistoryService;
 
     @GetMapping("/{userId}")
-    public List<Order> getOrders(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        return orderRepository.findByUser(user);
+    public CursorPage<OrderSummary> getOrders(@PathVariable Long userId,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return orderHistoryService.getOrderHistory(userId, cursor, size);
     }
 
     @PostMapping("/{userId}")
-    public Map<String, Object> placeOrder(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElseThrow();
-        ShoppingCart cart = shoppingCartRepository.findByUser(user);
-        Map<String, Object> resp = new HashMap<>();
-        if (cart == null || cart.getCartItems().isEmpty()) {
-            resp.put("message", "Cart is empty");
+    public ResponseEntity<Object> placeOrder(@PathVariable Long userId,
+                                             @RequestHeader(value = IdempotencyService.HEADER, required = false)
+                                             String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/orders/" + userId, null, () -> {
+            Map<String, Object> resp = new HashMap<>();
+            Optional<Order> order = checkoutService.placeOrder(userId);
+            if (order.isEmpty()) {
+                resp.put("message", "Cart is empty");
+                return resp;
+            }
+            resp.put("message", "Order placed successfully");
+            resp.put("orderId", order.get().getId());
+            resp.put("reservedUntil", order.get().getReservedUntil());
             return resp;
-        }
-
-        Order order = new Order();
-        order.setUser(user);
-        order.setOrderDate(LocalDateTime.now());
-        order.setStatus(Order.OrderStatus.PENDING);
-
-        BigDecimal totalPrice = BigDecimal.ZERO;
-        int totalQty = 0;
-
-        for (CartItem ci : cart.getCartItems()) {
-            OrderItem oi = new OrderItem();
-            oi.setOrder(order);
-            oi.setProduct(ci.getProduct());
-            oi.setQuantity(ci.getQuantity());
-            oi.setUnitPrice(ci.getUnitPrice());
-            order.getOrderItems().add(oi);
-            totalQty += ci.getQuantity();
-            totalPrice = totalPrice.add(ci.getUnitPrice().multiply(BigDecimal.valueOf(ci.getQuantity())));
-        }
-
-        order.setTotalQuantity(totalQty);
-        order.setTotalPrice(totalPrice);
-        orderRepository.save(order);
-
-        // Clear cart
-        cart.getCartItems().clear();
-        cart.setTotalItems(0);
-        cart.setTotalPrice(BigDecimal.ZERO);
-        shoppingCartRepository.save(cart);
-
-        resp.put("message", "Order placed successfully");
-        resp.put("orderId", order.getId());
-        return resp;
+        });
     }
 }
@@ -1,14 +1,33 @@
 package com.ourstore.ourstorebackend.controllers;
 
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.FacetedProductPage;
+import com.ourstore.ourstorebackend.dto.ProductCursor;
+import com.ourstore.ourstorebackend.dto.ProductDetail;
+import com.ourstore.ourstorebackend.dto.ProductFilter;
+import com.ourstore.ourstorebackend.dto.ProductSearchResult;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
 import com.ourstore.ourstorebackend.entities.Product;
 import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.ProductSort;
+import com.ourstore.ourstorebackend.services.CatalogService;
+import com.ourstore.ourstorebackend.services.ProductFacetIndex;
+import com.ourstore.ourstorebackend.services.ProductSearchIndex;
+import com.ourstore.ourstorebackend.services.SuggestionTrie;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
@@ -18,26 +37,80 @@ public class ProductController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private SuggestionTrie suggestionTrie;
+
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public CursorPage<ProductSummary> getAllProducts(ProductFilter filter,
+                                              @RequestParam(defaultValue = "dateCreated") String sort,
+                                              @RequestParam(defaultValue = "desc") String direction,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(required = false) Integer size) {
+        return productRepository.findPage(filter, sort, direction, cursor, size);
+    }
+
+    @GetMapping("/search")
+    public ProductSearchResult searchProducts(@RequestParam String q,
+                                              @RequestParam(required = false) Integer limit) {
+        ProductSearchIndex.Hits hits = productSearchIndex.search(q, CursorPage.clampSize(limit));
+        return new ProductSearchResult(q, hits.totalHits(), hydrate(hits.productIds()));
+    }
+
+    @GetMapping("/suggest")
+    public List<SuggestionTrie.Suggestion> suggestProducts(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "8") int limit) {
+        return suggestionTrie.suggest(q, Math.max(1, limit));
+    }
+
+    @GetMapping("/facets")
+    public FacetedProductPage getFacetedProducts(@RequestParam(required = false) Set<Long> categoryId,
+                                                 @RequestParam(required = false) Set<String> price,
+                                                 @RequestParam(required = false) Integer minRating,
+                                                 @RequestParam(required = false) Boolean inStock,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        Set<ProductFacetIndex.PriceBucket> buckets = price == null ? null : price.stream()
+                .map(ProductFacetIndex.PriceBucket::fromLabel)
+                .collect(Collectors.toSet());
+        // Faceted pages are in id order, so they share the listing's id cursor
+        Long afterId = cursor == null || cursor.isBlank()
+                ? null
+                : ProductCursor.decode(cursor, ProductSort.ID, false).id();
+        ProductFacetIndex.Result result = productFacetIndex.query(
+                new ProductFacetIndex.Query(categoryId, buckets, minRating, inStock),
+                afterId, CursorPage.clampSize(size));
+        String nextCursor = result.lastId() == null
+                ? null
+                : new ProductCursor(ProductSort.ID, false, result.lastId(), result.lastId()).encode();
+        return new FacetedProductPage(result.total(), hydrate(result.productIds()), nextCursor, result.facets());
     }
 
     @GetMapping("/{id}")
-    public Product getProductById(@PathVariable Long id) {
-        return productRepository.findById(id).orElseThrow();
+    public ResponseEntity<ProductDetail> getProductById(@PathVariable Long id, WebRequest request) {
+        ProductDetail detail = catalogService.getProductDetail(id);
+        return ConditionalGet.respond(request, ConditionalGet.etag(detail.id(), detail.lastUpdated()),
+                detail.lastUpdated(), () -> detail);
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Product addProduct(@RequestBody Product product) {
-        return productRepository.save(product);
+        return catalogService.saveProduct(product);
     }
     
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteProduct(@PathVariable Long id) {
-        productRepository.deleteById(id);
+        catalogService.deleteProduct(id);
     }
     
     @PostMapping("/add-dummy-data")
@@ -55,10 +128,24 @@ public class ProductController {
                 product.setSku("SKU-" + i);
                 product.setImageUrl("https://via.placeholder.com/400x300?text=Product+" + i);
                 product.setActive(true);
-                productRepository.save(product);
+                catalogService.saveProduct(product);
             }
             return "Dummy data added successfully.";
         }
         return "Products already exist, no dummy data added.";
     }
+
+    // Loads summaries by primary key, then restores the order the index produced,
+    // which the IN query does not preserve
+    private List<ProductSummary> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProductSummary> byId = productRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductSummary::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ourstore.ourstorebackend.controllers;
 
+import com.ourstore.ourstorebackend.dto.ProductSummary;
 import com.ourstore.ourstorebackend.entities.Category;
 import com.ourstore.ourstorebackend.entities.Product;
 import com.ourstore.ourstorebackend.entities.User;
@@ -31,7 +32,7 @@ public class RecommendationController {
     private ProductRepository productRepository;
 
     @GetMapping("/me")
-    public List<Product> getRecommendationsForCurrentUser(@AuthenticationPrincipal User user) {
+    public List<ProductSummary> getRecommendationsForCurrentUser(@AuthenticationPrincipal User user) {
         Set<Category> preferredCategories = new HashSet<>();
 
         Wishlist wishlist = wishlistRepository.findByUser(user);
@@ -60,7 +61,7 @@ public class RecommendationController {
                         result.add(p);
                     }
                     if (result.size() >= 10) {
-                        return result;
+                        return result.stream().map(ProductSummary::of).toList();
                     }
                 }
             }
@@ -70,6 +71,6 @@ public class RecommendationController {
             result = productRepository.findTop10ByOrderByAverageRatingDesc();
         }
 
-        return result;
+        return result.stream().map(ProductSummary::of).toList();
     }
 }
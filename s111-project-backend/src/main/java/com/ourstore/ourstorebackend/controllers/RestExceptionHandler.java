@@ -0,0 +1,63 @@
+package com.ourstore.ourstorebackend.controllers;
+
+import com.ourstore.ourstorebackend.services.IdempotencyConflictException;
+import com.ourstore.ourstorebackend.services.InsufficientStockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Map<String, String> handleBadRequest(IllegalArgumentException ex) {
+        Map<String, String> resp = new HashMap<>();
+        resp.put("message", ex.getMessage());
+        return resp;
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> handleInsufficientStock(InsufficientStockException ex) {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("message", ex.getMessage());
+        resp.put("productId", ex.getProductId());
+        resp.put("requested", ex.getRequested());
+        return resp;
+    }
+
+    // Lost an optimistic-lock race, after any retries; the client should reload and try again
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleConcurrentUpdate(OptimisticLockingFailureException ex) {
+        Map<String, String> resp = new HashMap<>();
+        resp.put("message", "The resource was changed concurrently; reload it and try again");
+        return resp;
+    }
+
+    // Any other lost race (deadlock victim, lock wait timeout), after any retries
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, String> handleLockConflict(ConcurrencyFailureException ex) {
+        Map<String, String> resp = new HashMap<>();
+        resp.put("message", "The request conflicted with a concurrent one; try again");
+        return resp;
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<Map<String, String>> handleIdempotencyConflict(IdempotencyConflictException ex) {
+        Map<String, String> resp = new HashMap<>();
+        resp.put("message", ex.getMessage());
+        // In progress: retry later. Different body: the client reused a key by mistake.
+        HttpStatus status = ex.isInProgress() ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY;
+        return ResponseEntity.status(status).body(resp);
+    }
+}
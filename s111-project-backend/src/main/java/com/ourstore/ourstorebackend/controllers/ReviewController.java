@@ -5,6 +5,8 @@ import com.ourstore.ourstorebackend.entities.Review;
 import com.ourstore.ourstorebackend.entities.User;
 import com.ourstore.ourstorebackend.repositories.ProductRepository;
 import com.ourstore.ourstorebackend.repositories.ReviewRepository;
+import com.ourstore.ourstorebackend.services.CatalogService;
+import com.ourstore.ourstorebackend.services.ConflictRetry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -24,6 +26,12 @@ public class ReviewController {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ConflictRetry conflictRetry;
+
     @PostMapping("/reviews")
     public Map<String, Object> addReview(@AuthenticationPrincipal User user,
                                          @RequestBody Map<String, Object> payload) {
@@ -31,21 +39,26 @@ public class ReviewController {
         Integer rating = ((Number) payload.get("rating")).intValue();
         String comment = (String) payload.getOrDefault("comment", "");
 
-        Product product = productRepository.findById(productId).orElseThrow();
+        // Concurrent reviews of one product would otherwise lose each other's rating;
+        // a retry re-reads the product and saves the review again in a new transaction
+        Review review = conflictRetry.execute(() -> {
+            Product product = productRepository.findById(productId).orElseThrow();
+
+            Review saved = new Review();
+            saved.setUser(user);
+            saved.setProduct(product);
+            saved.setRating(rating);
+            saved.setComment(comment);
+            reviewRepository.save(saved);
 
-        Review review = new Review();
-        review.setUser(user);
-        review.setProduct(product);
-        review.setRating(rating);
-        review.setComment(comment);
-        reviewRepository.save(review);
-
-        Integer oldCount = product.getReviewCount() == null ? 0 : product.getReviewCount();
-        Double oldAvg = product.getAverageRating() == null ? 0.0 : product.getAverageRating();
-        double newAvg = ((oldAvg * oldCount) + rating) / (oldCount + 1);
-        product.setReviewCount(oldCount + 1);
-        product.setAverageRating(newAvg);
-        productRepository.save(product);
+            Integer oldCount = product.getReviewCount() == null ? 0 : product.getReviewCount();
+            Double oldAvg = product.getAverageRating() == null ? 0.0 : product.getAverageRating();
+            double newAvg = ((oldAvg * oldCount) + rating) / (oldCount + 1);
+            product.setReviewCount(oldCount + 1);
+            product.setAverageRating(newAvg);
+            catalogService.saveProduct(product);
+            return saved;
+        });
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("message", "Review added");
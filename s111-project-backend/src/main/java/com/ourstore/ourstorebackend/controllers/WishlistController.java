@@ -7,8 +7,11 @@ import com.ourstore.ourstorebackend.repositories.ProductRepository;
 import com.ourstore.ourstorebackend.repositories.UserRepository;
 import com.ourstore.ourstorebackend.repositories.WishlistRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -27,7 +30,18 @@ public class WishlistController {
     private ProductRepository productRepository;
 
     @GetMapping("/{userId}")
-    public Wishlist getWishlist(@PathVariable Long userId) {
+    public ResponseEntity<Wishlist> getWishlist(@PathVariable Long userId, WebRequest request) {
+        LocalDateTime lastUpdated = wishlistRepository.findLastUpdatedByUserId(userId).orElse(null);
+        if (lastUpdated == null) {
+            return ResponseEntity.ok(loadWishlist(userId));
+        }
+        // The body embeds the products, so their edits count as well as membership changes
+        LocalDateTime productsUpdated = wishlistRepository.findProductsLastUpdatedByUserId(userId).orElse(null);
+        return ConditionalGet.respond(request, ConditionalGet.etag("wishlist", userId, lastUpdated, productsUpdated),
+                ConditionalGet.latest(lastUpdated, productsUpdated), () -> loadWishlist(userId));
+    }
+
+    private Wishlist loadWishlist(Long userId) {
         User user = userRepository.findById(userId).orElseThrow();
         Wishlist wishlist = wishlistRepository.findByUser(user);
         if (wishlist == null) {
@@ -49,6 +63,8 @@ public class WishlistController {
         }
         Product product = productRepository.findById(productId).orElseThrow();
         wishlist.getProducts().add(product);
+        // Membership lives in the join table, so touch the timestamp explicitly
+        wishlist.setLastUpdated(LocalDateTime.now());
         return wishlistRepository.save(wishlist);
     }
 
@@ -60,6 +76,7 @@ public class WishlistController {
             return null;
         }
         wishlist.getProducts().removeIf(p -> p.getId().equals(productId));
+        wishlist.setLastUpdated(LocalDateTime.now());
         return wishlistRepository.save(wishlist);
     }
 
@@ -69,6 +86,7 @@ public class WishlistController {
         Wishlist wishlist = wishlistRepository.findByUser(user);
         if (wishlist != null) {
             wishlist.getProducts().clear();
+            wishlist.setLastUpdated(LocalDateTime.now());
             wishlistRepository.save(wishlist);
         }
         Map<String, String> resp = new HashMap<>();
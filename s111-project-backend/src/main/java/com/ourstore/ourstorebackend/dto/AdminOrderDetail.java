@@ -0,0 +1,57 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One order as the admin screen shows it. The header comes from one constructor query
+ * joined to the user; lines are attached from a second query and render the checkout
+ * snapshot, not the live product.
+ */
+public record AdminOrderDetail(Long id,
+                               String orderTrackingNumber,
+                               Long userId,
+                               String username,
+                               Order.OrderStatus status,
+                               String paymentStatus,
+                               String paymentMethod,
+                               String shippingAddress,
+                               String billingAddress,
+                               int totalQuantity,
+                               BigDecimal totalPrice,
+                               LocalDateTime orderDate,
+                               LocalDateTime lastUpdated,
+                               boolean stockReserved,
+                               LocalDateTime reservedUntil,
+                               List<Line> items) {
+
+    public record Line(Long id,
+                       Long productId,
+                       String productName,
+                       String sku,
+                       String imageUrl,
+                       Long categoryId,
+                       int quantity,
+                       BigDecimal unitPrice) {
+    }
+
+    // Used by the JPQL constructor expression, which cannot produce the line list
+    public AdminOrderDetail(Long id, String orderTrackingNumber, Long userId, String username,
+                            Order.OrderStatus status, String paymentStatus, String paymentMethod,
+                            String shippingAddress, String billingAddress, int totalQuantity,
+                            BigDecimal totalPrice, LocalDateTime orderDate, LocalDateTime lastUpdated,
+                            boolean stockReserved, LocalDateTime reservedUntil) {
+        this(id, orderTrackingNumber, userId, username, status, paymentStatus, paymentMethod, shippingAddress,
+                billingAddress, totalQuantity, totalPrice, orderDate, lastUpdated, stockReserved, reservedUntil,
+                List.of());
+    }
+
+    public AdminOrderDetail withItems(List<Line> items) {
+        return new AdminOrderDetail(id, orderTrackingNumber, userId, username, status, paymentStatus, paymentMethod,
+                shippingAddress, billingAddress, totalQuantity, totalPrice, orderDate, lastUpdated, stockReserved,
+                reservedUntil, items);
+    }
+}
@@ -0,0 +1,16 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.util.List;
+
+/**
+ * A page of the admin order search. The first page also carries the number of
+ * matching orders, counted only up to a cap: {@code totalExact} is false when there
+ * are at least {@code total} matches.
+ */
+public record AdminOrderPage(List<AdminOrderRow> items,
+                             String nextCursor,
+                             boolean hasNext,
+                             int size,
+                             Long total,
+                             Boolean totalExact) {
+}
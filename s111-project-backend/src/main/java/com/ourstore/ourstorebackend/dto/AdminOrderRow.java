@@ -0,0 +1,23 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the admin order search, selected straight from orders and users so a
+ * page never loads order items.
+ */
+public record AdminOrderRow(Long id,
+                            String orderTrackingNumber,
+                            Long userId,
+                            String username,
+                            Order.OrderStatus status,
+                            String paymentStatus,
+                            String paymentMethod,
+                            int totalQuantity,
+                            BigDecimal totalPrice,
+                            LocalDateTime orderDate,
+                            LocalDateTime lastUpdated) {
+}
@@ -0,0 +1,8 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+
+import java.util.List;
+
+public record BulkStatusRequest(List<Long> ids, Order.OrderStatus status) {
+}
@@ -0,0 +1,26 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status change: how many orders moved, and per requested id what
+ * happened to it, in request order.
+ */
+public record BulkStatusResult(Order.OrderStatus status, int updated, List<Item> results) {
+
+    public enum Outcome {
+        UPDATED,
+        // Already in the requested status
+        UNCHANGED,
+        NOT_FOUND,
+        // The order's current status may not move to the requested one
+        INVALID_TRANSITION,
+        // Another update moved the order between our read and our write
+        CONFLICT
+    }
+
+    public record Item(Long id, Outcome outcome, Order.OrderStatus previousStatus) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.util.List;
+
+/**
+ * Several cart line changes applied together, in order. Lines are addressed by
+ * product: ADD adds to the quantity, SET replaces it (0 removes the line), REMOVE
+ * drops the line.
+ */
+public record CartBatchRequest(List<Operation> operations) {
+
+    public enum Type { ADD, SET, REMOVE }
+
+    public record Operation(Type type, Long productId, Integer quantity) {
+    }
+}
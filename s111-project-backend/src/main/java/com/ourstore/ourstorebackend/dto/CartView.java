@@ -0,0 +1,22 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A user's cart as the cart endpoints return it, whichever cart store produced it.
+ */
+public record CartView(Long id,
+                       int totalItems,
+                       BigDecimal totalPrice,
+                       LocalDateTime lastUpdated,
+                       List<Line> items) {
+
+    public record Line(Long id, int quantity, BigDecimal unitPrice, Product product) {
+    }
+
+    // Current catalog values, not a snapshot; null if the product no longer exists
+    public record Product(Long id, String name, String description, BigDecimal price, String imageUrl) {
+    }
+}
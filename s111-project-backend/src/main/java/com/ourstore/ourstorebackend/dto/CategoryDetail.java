@@ -0,0 +1,13 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.time.LocalDateTime;
+
+public record CategoryDetail(Long id,
+                             String name,
+                             String description,
+                             String imageUrl,
+                             Boolean active,
+                             LocalDateTime dateCreated,
+                             LocalDateTime lastUpdated,
+                             Long productCount) {
+}
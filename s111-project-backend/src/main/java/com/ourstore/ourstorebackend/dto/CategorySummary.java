@@ -0,0 +1,4 @@
+package com.ourstore.ourstorebackend.dto;
+
+public record CategorySummary(Long id, String name, String description, String imageUrl, Boolean active) {
+}
@@ -0,0 +1,7 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailySales(LocalDate day, BigDecimal revenue, long units, long orderCount) {
+}
@@ -0,0 +1,14 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A filtered product page together with per-facet counts, keyed by facet name and
+ * then by facet value.
+ */
+public record FacetedProductPage(int total,
+                                 List<ProductSummary> items,
+                                 String nextCursor,
+                                 Map<String, Map<String, Integer>> facets) {
+}
@@ -0,0 +1,10 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and newest lastUpdated of a table, used as a cheap validator for
+ * collection responses.
+ */
+public record Freshness(long count, LocalDateTime lastUpdated) {
+}
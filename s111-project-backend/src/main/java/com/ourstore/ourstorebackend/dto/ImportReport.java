@@ -0,0 +1,14 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first errors are listed; errorCount covers all
+ * rejected rows.
+ */
+public record ImportReport(String importId, String status, long rowsRead, long rowsUpserted, long errorCount,
+                           List<RowError> errors, long elapsedMillis) {
+
+    public record RowError(long line, String sku, String message) {
+    }
+}
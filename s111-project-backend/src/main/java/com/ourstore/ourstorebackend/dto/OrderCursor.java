@@ -0,0 +1,28 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque page token for order history: the order date and id of the last order on
+ * the previous page.
+ */
+public record OrderCursor(LocalDateTime orderDate, long id) {
+
+    public String encode() {
+        String raw = id + ":" + orderDate;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The id goes first because timestamps contain ':'
+            String[] parts = raw.split(":", 2);
+            return new OrderCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[0]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
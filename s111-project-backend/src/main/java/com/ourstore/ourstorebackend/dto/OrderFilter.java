@@ -0,0 +1,20 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional filters for the admin order search. Every field left null is ignored;
+ * {@code from} and {@code to} are inclusive order dates.
+ */
+public record OrderFilter(Order.OrderStatus status,
+                          String paymentStatus,
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                          Long userId,
+                          BigDecimal minTotal,
+                          BigDecimal maxTotal) {
+}
@@ -0,0 +1,41 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.repositories.OrderSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page token for the admin order search: the sort it was issued for plus the
+ * sort key and id of the last row on the previous page.
+ */
+public record OrderSearchCursor(OrderSort sort, boolean descending, Object key, long id) {
+
+    public String encode() {
+        String raw = sort.name() + ":" + (descending ? "d" : "a") + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderSearchCursor decode(String token, OrderSort expectedSort, boolean expectedDescending) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        // The key goes last because timestamps contain ':'
+        String[] parts = raw.split(":", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!parts[0].equals(expectedSort.name()) || parts[1].equals("d") != expectedDescending) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        try {
+            return new OrderSearchCursor(expectedSort, expectedDescending,
+                    expectedSort.parse(parts[3]), Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Order;
+
+public record OrderStatusRow(Long id, Order.OrderStatus status) {
+}
@@ -0,0 +1,26 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order history shape: the order header and, per line, the product as it was at
+ * checkout.
+ */
+public record OrderSummary(Long id,
+                           LocalDateTime orderDate,
+                           String status,
+                           int totalQuantity,
+                           BigDecimal totalPrice,
+                           String orderTrackingNumber,
+                           List<Line> items) {
+
+    public record Line(Long productId,
+                       String productName,
+                       String sku,
+                       String imageUrl,
+                       int quantity,
+                       BigDecimal unitPrice) {
+    }
+}
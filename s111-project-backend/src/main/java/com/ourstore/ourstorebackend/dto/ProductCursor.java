@@ -0,0 +1,53 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.repositories.ProductSort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque page token for the product listing: the sort it was issued for plus the
+ * sort key and id of the last row on the previous page. A null sort key is encoded
+ * as such, so a page may end on a product with no rating or creation date.
+ */
+public record ProductCursor(ProductSort sort, boolean descending, Object key, long id) {
+
+    private static final String NULL_KEY = "-";
+    private static final String VALUE_PREFIX = "=";
+
+    public String encode() {
+        String raw = sort.name() + ":" + (descending ? "d" : "a") + ":" + id + ":"
+                + (key == null ? NULL_KEY : VALUE_PREFIX + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String token, ProductSort expectedSort, boolean expectedDescending) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        // The key goes last because names and timestamps may themselves contain ':'
+        String[] parts = raw.split(":", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (!parts[0].equals(expectedSort.name()) || parts[1].equals("d") != expectedDescending) {
+            throw new IllegalArgumentException("Cursor was issued for a different sort order");
+        }
+        try {
+            Object key;
+            if (parts[3].equals(NULL_KEY)) {
+                key = null;
+            } else if (parts[3].startsWith(VALUE_PREFIX)) {
+                key = expectedSort.parse(parts[3].substring(VALUE_PREFIX.length()));
+            } else {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new ProductCursor(expectedSort, expectedDescending, key, Long.parseLong(parts[2]));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Detail shape of a product. The scalar part comes from one constructor query;
+ * images are attached from a second, single query.
+ */
+public record ProductDetail(Long id,
+                            String name,
+                            String description,
+                            BigDecimal price,
+                            String sku,
+                            String imageUrl,
+                            Integer stockQuantity,
+                            Boolean active,
+                            Double averageRating,
+                            Integer reviewCount,
+                            LocalDateTime dateCreated,
+                            LocalDateTime lastUpdated,
+                            Long version,
+                            Long categoryId,
+                            String categoryName,
+                            List<Image> images) {
+
+    public record Image(Long id, String imageUrl, String altText, Boolean primary) {
+    }
+
+    // Used by the JPQL constructor expression, which cannot produce the image list
+    public ProductDetail(Long id, String name, String description, BigDecimal price, String sku,
+                         String imageUrl, Integer stockQuantity, Boolean active, Double averageRating,
+                         Integer reviewCount, LocalDateTime dateCreated, LocalDateTime lastUpdated,
+                         Long version, Long categoryId, String categoryName) {
+        this(id, name, description, price, sku, imageUrl, stockQuantity, active, averageRating,
+                reviewCount, dateCreated, lastUpdated, version, categoryId, categoryName, List.of());
+    }
+
+    public ProductDetail withImages(List<Image> images) {
+        return new ProductDetail(id, name, description, price, sku, imageUrl, stockQuantity, active,
+                averageRating, reviewCount, dateCreated, lastUpdated, version, categoryId, categoryName, images);
+    }
+}
@@ -0,0 +1,18 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Optional filters for the product listing. Every field left null is ignored.
+ */
+public record ProductFilter(Long categoryId,
+                            BigDecimal minPrice,
+                            BigDecimal maxPrice,
+                            Double minRating,
+                            Boolean inStock,
+                            Boolean active) {
+
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,11 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One product in a bulk import feed, keyed by sku. Fields map one-to-one to the
+ * CSV header names and NDJSON property names.
+ */
+public record ProductImportRow(String sku, String name, String description, BigDecimal price,
+                               Integer stockQuantity, String imageUrl, Boolean active, Long categoryId) {
+}
@@ -0,0 +1,4 @@
+package com.ourstore.ourstorebackend.dto;
+
+public record ProductQuantity(Long productId, long quantity) {
+}
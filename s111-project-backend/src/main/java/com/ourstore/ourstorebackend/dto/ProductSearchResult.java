@@ -0,0 +1,6 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.util.List;
+
+public record ProductSearchResult(String query, int totalHits, List<ProductSummary> items) {
+}
@@ -0,0 +1,35 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.entities.Product;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * List shape of a product: only the columns the storefront cards render, selected
+ * straight into the record so listing never touches reviews or images. Admin edits send
+ * the version back, so they cannot overwrite a newer change.
+ */
+public record ProductSummary(Long id,
+                             String name,
+                             String description,
+                             BigDecimal price,
+                             String sku,
+                             String imageUrl,
+                             Integer stockQuantity,
+                             Boolean active,
+                             Double averageRating,
+                             Integer reviewCount,
+                             LocalDateTime dateCreated,
+                             Long version,
+                             Long categoryId,
+                             String categoryName) {
+
+    public static ProductSummary of(Product p) {
+        return new ProductSummary(p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getSku(),
+                p.getImageUrl(), p.getStockQuantity(), p.getActive(), p.getAverageRating(),
+                p.getReviewCount(), p.getDateCreated(), p.getVersion(),
+                p.getCategory() != null ? p.getCategory().getId() : null,
+                p.getCategory() != null ? p.getCategory().getName() : null);
+    }
+}
@@ -0,0 +1,10 @@
+package com.ourstore.ourstorebackend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Sales of one product or category summed over a date range of the rollups.
+ * {@code orderCount} is the number of orders that contained it.
+ */
+public record SalesTotal(Long id, BigDecimal revenue, long units, long orderCount) {
+}
@@ -5,11 +5,16 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "cart_items")
+// One line per product and cart, which the add-to-cart upsert relies on
+@Table(name = "cart_items", uniqueConstraints =
+        @UniqueConstraint(name = CartItem.UNIQUE_LINE, columnNames = {"shopping_cart_id", "product_id"}))
 public class CartItem {
+
+    // One line per product in a cart
+    public static final String UNIQUE_LINE = "uk_cart_items_cart_product";
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
     
     @JsonIgnore
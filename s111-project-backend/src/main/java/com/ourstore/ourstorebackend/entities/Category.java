@@ -1,5 +1,6 @@
 package com.ourstore.ourstorebackend.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -27,6 +28,7 @@ public class Category {
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
     
+    @JsonIgnore
     @OneToMany(mappedBy = "category", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Product> products = new HashSet<>();
     
@@ -90,6 +92,12 @@ public class Category {
         this.lastUpdated = lastUpdated;
     }
 
+    // Drives the ETag / Last-Modified validators on reads
+    @PreUpdate
+    protected void onUpdate() {
+        this.lastUpdated = LocalDateTime.now();
+    }
+
     public Set<Product> getProducts() {
         return products;
     }
@@ -8,7 +8,18 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        // Backs the reservation expiry sweep
+        @Index(name = "idx_orders_status_reserved_until", columnList = "status, reserved_until"),
+        // Backs the keyset-paginated order history
+        @Index(name = "idx_orders_user_order_date", columnList = "user_id, order_date, id"),
+        // Admin search: each filter that narrows well leads an index that also serves
+        // the default newest-first sort
+        @Index(name = "idx_orders_status_order_date", columnList = "status, order_date, id"),
+        @Index(name = "idx_orders_payment_status_order_date", columnList = "payment_status, order_date, id"),
+        @Index(name = "idx_orders_order_date", columnList = "order_date, id"),
+        @Index(name = "idx_orders_total_price", columnList = "total_price, id")
+})
 public class Order {
     
     public enum OrderStatus {
@@ -17,11 +28,27 @@ public class Order {
         SHIPPED,
         DELIVERED,
         CANCELLED,
-        REFUNDED
+        REFUNDED;
+
+        // The fulfilment flow; CANCELLED and REFUNDED are final
+        public boolean canMoveTo(OrderStatus next) {
+            return switch (this) {
+                case PENDING -> next == PROCESSING || next == CANCELLED;
+                case PROCESSING -> next == SHIPPED || next == CANCELLED;
+                case SHIPPED -> next == DELIVERED;
+                case DELIVERED -> next == REFUNDED;
+                case CANCELLED, REFUNDED -> false;
+            };
+        }
+
+        // Whether an order in this status counts towards sales figures
+        public boolean countsAsSale() {
+            return this != CANCELLED && this != REFUNDED;
+        }
     }
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
     
     @Column(name = "order_tracking_number")
@@ -63,6 +90,19 @@ public class Order {
     
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
+
+    // Optimistic lock; bulk and native updates of this table bump it too
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // True while the order holds stock taken from the products table
+    @Column(name = "stock_reserved", nullable = false)
+    private boolean stockReserved;
+
+    // Unpaid reservations still PENDING after this are cancelled and restocked
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
     
     // Getters and Setters
     public Long getId() {
@@ -168,4 +208,28 @@ public class Order {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
+    public void setStockReserved(boolean stockReserved) {
+        this.stockReserved = stockReserved;
+    }
+
+    public LocalDateTime getReservedUntil() {
+        return reservedUntil;
+    }
+
+    public void setReservedUntil(LocalDateTime reservedUntil) {
+        this.reservedUntil = reservedUntil;
+    }
 }
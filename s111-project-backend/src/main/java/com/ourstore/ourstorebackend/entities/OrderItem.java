@@ -9,7 +9,7 @@ import java.math.BigDecimal;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
     
     @JsonIgnore
@@ -26,6 +26,22 @@ public class OrderItem {
     
     @Column(name = "unit_price", precision = 10, scale = 2)
     private BigDecimal unitPrice;
+
+    // Copied from the product at checkout so history shows what was bought even after
+    // the product is renamed; null only on rows the snapshot backfill has not reached
+    @Column(name = "product_name")
+    private String productName;
+
+    @Column(name = "product_sku")
+    private String productSku;
+
+    @Column(name = "product_image_url")
+    private String productImageUrl;
+
+    // The category the sale counts towards in the sales rollups; null if the product
+    // had none
+    @Column(name = "category_id")
+    private Long categoryId;
     
     // Getters and Setters
     public Long getId() {
@@ -67,4 +83,36 @@ public class OrderItem {
     public void setUnitPrice(BigDecimal unitPrice) {
         this.unitPrice = unitPrice;
     }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public String getProductSku() {
+        return productSku;
+    }
+
+    public void setProductSku(String productSku) {
+        this.productSku = productSku;
+    }
+
+    public String getProductImageUrl() {
+        return productImageUrl;
+    }
+
+    public void setProductImageUrl(String productImageUrl) {
+        this.productImageUrl = productImageUrl;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
 }
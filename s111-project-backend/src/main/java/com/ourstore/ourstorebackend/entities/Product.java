@@ -1,16 +1,31 @@
 package com.ourstore.ourstorebackend.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "products")
+// Stock moves through conditional bulk UPDATEs; writing only dirty columns keeps an
+// unrelated save (a rating change, say) from restoring a stale stock_quantity.
+@DynamicUpdate
+@Table(name = "products", uniqueConstraints = {
+        // Bulk import upserts by sku
+        @UniqueConstraint(name = "uk_products_sku", columnNames = "sku")
+}, indexes = {
+        // Composite (sort key, id) indexes back the keyset-paginated listing
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_date_created_id", columnList = "date_created, id"),
+        @Index(name = "idx_products_rating_id", columnList = "averageRating, id"),
+        @Index(name = "idx_products_name_id", columnList = "name, id")
+})
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
     
     @Column(nullable = false)
@@ -24,6 +39,11 @@ public class Product {
     
     @Column(nullable = false)
     private Integer stockQuantity = 0;
+
+    // Non-zero in flash-sale mode: stock lives in that many product_stock_shards rows
+    // and stockQuantity is only a periodically refreshed total for display.
+    @Column(name = "stock_shards", nullable = false)
+    private int stockShards;
     
     private String sku;
     private String imageUrl;
@@ -36,14 +56,21 @@ public class Product {
     
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
+
+    // Optimistic lock; bulk and native updates of this table bump it too
+    @Version
+    @Column(nullable = false)
+    private Long version;
     
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
     
+    @JsonIgnore
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Review> reviews = new HashSet<>();
     
+    @JsonIgnore
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<ProductImage> images = new HashSet<>();
     
@@ -95,6 +122,14 @@ public class Product {
         this.stockQuantity = stockQuantity;
     }
 
+    public int getStockShards() {
+        return stockShards;
+    }
+
+    public void setStockShards(int stockShards) {
+        this.stockShards = stockShards;
+    }
+
     public String getSku() {
         return sku;
     }
@@ -135,6 +170,20 @@ public class Product {
         this.lastUpdated = lastUpdated;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Drives the ETag / Last-Modified validators on reads
+    @PreUpdate
+    protected void onUpdate() {
+        this.lastUpdated = LocalDateTime.now();
+    }
+
     public Category getCategory() {
         return category;
     }
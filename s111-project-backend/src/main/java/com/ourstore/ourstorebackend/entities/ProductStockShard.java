@@ -0,0 +1,68 @@
+package com.ourstore.ourstorebackend.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * One slice of a flash-sale product's stock. Checkouts decrement a single shard, so
+ * concurrent buyers of the same product contend on N rows instead of one.
+ */
+@Entity
+@Table(name = "product_stock_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_stock_shards_product_shard", columnNames = {"product_id", "shard_no"})
+})
+public class ProductStockShard {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public ProductStockShard() {
+    }
+
+    public ProductStockShard(Long productId, int shardNo, int quantity) {
+        this.productId = productId;
+        this.shardNo = shardNo;
+        this.quantity = quantity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+
+    public int getShardNo() {
+        return shardNo;
+    }
+
+    public void setShardNo(int shardNo) {
+        this.shardNo = shardNo;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+}
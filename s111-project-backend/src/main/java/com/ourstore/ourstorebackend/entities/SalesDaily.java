@@ -0,0 +1,42 @@
+package com.ourstore.ourstorebackend.entities;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales per order day, kept up to date incrementally from the outbox. Cancelled and
+ * refunded orders are not counted.
+ */
+@Entity
+@Table(name = "sales_daily")
+public class SalesDaily {
+
+    @Id
+    private LocalDate day;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+}
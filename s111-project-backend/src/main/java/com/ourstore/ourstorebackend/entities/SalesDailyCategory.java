@@ -0,0 +1,70 @@
+package com.ourstore.ourstorebackend.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Sales per order day and category, kept up to date incrementally from the outbox.
+ * Uncategorized products are counted under category id 0.
+ * {@code orderCount} is the number of orders containing the category that day.
+ */
+@Entity
+@Table(name = "sales_daily_category")
+@IdClass(SalesDailyCategory.Key.class)
+public class SalesDailyCategory {
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long categoryId;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(day, other.day)
+                    && Objects.equals(categoryId, other.categoryId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, categoryId);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.ourstore.ourstorebackend.entities;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Sales per order day and product, kept up to date incrementally from the outbox.
+ * {@code orderCount} is the number of orders containing the product that day.
+ */
+@Entity
+@Table(name = "sales_daily_product")
+@IdClass(SalesDailyProduct.Key.class)
+public class SalesDailyProduct {
+
+    @Id
+    private LocalDate day;
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long units;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    public LocalDate getDay() {
+        return day;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public static class Key implements Serializable {
+        private LocalDate day;
+        private Long productId;
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && Objects.equals(day, other.day)
+                    && Objects.equals(productId, other.productId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(day, productId);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ourstore.ourstorebackend.entities;
+
+import jakarta.persistence.*;
+
+/**
+ * An outbox event already applied to the sales rollups. Recorded in the same
+ * transaction as the rollup change, so a redelivered event is applied only once.
+ */
+@Entity
+@Table(name = "sales_rollup_events")
+public class SalesRollupEvent {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    public Long getEventId() {
+        return eventId;
+    }
+}
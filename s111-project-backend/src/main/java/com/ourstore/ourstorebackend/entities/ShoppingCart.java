@@ -34,6 +34,11 @@ public class ShoppingCart {
     
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated = LocalDateTime.now();
+
+    // Optimistic lock; bulk and native updates of this table bump it too
+    @Version
+    @Column(nullable = false)
+    private Long version;
     
     // Getters and Setters
     public Long getId() {
@@ -91,4 +96,18 @@ public class ShoppingCart {
     public void setLastUpdated(LocalDateTime lastUpdated) {
         this.lastUpdated = lastUpdated;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Drives the ETag / Last-Modified validators on reads
+    @PreUpdate
+    protected void onUpdate() {
+        this.lastUpdated = LocalDateTime.now();
+    }
 }
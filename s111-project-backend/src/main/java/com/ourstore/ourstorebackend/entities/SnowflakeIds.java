@@ -0,0 +1,56 @@
+package com.ourstore.ourstorebackend.entities;
+
+/**
+ * Time-ordered 53-bit ids: 41 bits of milliseconds since 2024-01-01, 5 bits of
+ * worker id and 7 bits of per-millisecond sequence. 53 bits keeps every id exact as
+ * a JavaScript number, and because ids are assigned in the application, Hibernate
+ * can batch the inserts.
+ * <p>
+ * Each running instance needs a distinct worker id (0-31). It is set once at startup
+ * from the {@code ourstore.worker-id} property (see
+ * {@link com.ourstore.ourstorebackend.config.SnowflakeConfig}); ids cannot be
+ * generated before then.
+ */
+public final class SnowflakeIds {
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int WORKER_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long MAX_WORKER = (1L << WORKER_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private static long workerId = -1;
+    private static long lastMillis = -1;
+    private static long sequence;
+
+    private SnowflakeIds() {
+    }
+
+    public static synchronized void configure(long id) {
+        if (id < 0 || id > MAX_WORKER) {
+            throw new IllegalArgumentException("Worker id must be between 0 and " + MAX_WORKER + ": " + id);
+        }
+        workerId = id;
+    }
+
+    public static synchronized long next() {
+        if (workerId < 0) {
+            throw new IllegalStateException("No worker id configured; set ourstore.worker-id");
+        }
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else if (++sequence > MAX_SEQUENCE) {
+            // Sequence exhausted, or the clock stepped back: run ahead on a logical
+            // clock rather than block, which keeps ids unique and increasing.
+            lastMillis++;
+            sequence = 0;
+        }
+        return (lastMillis << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+
+    public static synchronized long workerId() {
+        return workerId;
+    }
+}
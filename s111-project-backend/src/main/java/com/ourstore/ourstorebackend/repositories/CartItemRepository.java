@@ -3,11 +3,33 @@ package com.ourstore.ourstorebackend.repositories;
 import com.ourstore.ourstorebackend.entities.CartItem;
 import com.ourstore.ourstorebackend.entities.ShoppingCart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     List<CartItem> findByShoppingCart(ShoppingCart shoppingCart);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.shoppingCart.id = :cartId")
+    int deleteAllByCartIdInBulk(Long cartId);
+
+    // Adds to the cart's line for the product, or creates it at the given unit price;
+    // an existing line keeps the price it was added at
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (id, shopping_cart_id, product_id, quantity, unit_price) " +
+            "VALUES (:id, :cartId, :productId, :quantity, :unitPrice) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)", nativeQuery = true)
+    int upsertQuantity(Long id, Long cartId, Long productId, int quantity, BigDecimal unitPrice);
+
+    Optional<CartItem> findByIdAndShoppingCartId(Long id, Long shoppingCartId);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.id = :itemId and ci.shoppingCart.id = :cartId")
+    int deleteByIdAndCartId(Long itemId, Long cartId);
 }
@@ -1,9 +1,31 @@
 package com.ourstore.ourstorebackend.repositories;
 
+import com.ourstore.ourstorebackend.dto.CategoryDetail;
+import com.ourstore.ourstorebackend.dto.CategorySummary;
+import com.ourstore.ourstorebackend.dto.Freshness;
 import com.ourstore.ourstorebackend.entities.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
+
+    @Query("select new com.ourstore.ourstorebackend.dto.CategorySummary(c.id, c.name, c.description, c.imageUrl, c.active) " +
+            "from Category c order by c.name")
+    List<CategorySummary> findAllSummaries();
+
+    @Query("select new com.ourstore.ourstorebackend.dto.CategoryDetail(c.id, c.name, c.description, c.imageUrl, " +
+            "c.active, c.dateCreated, c.lastUpdated, (select count(p) from Product p where p.category = c)) " +
+            "from Category c where c.id = :id")
+    Optional<CategoryDetail> findDetailById(Long id);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.Freshness(count(c), max(c.lastUpdated)) from Category c")
+    Freshness findFreshness();
+
+    @Query("select c.id from Category c")
+    List<Long> findAllIds();
 }
@@ -0,0 +1,30 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Lets a retry take over a claim whose owner died before finishing
+    @Modifying
+    @Query("update IdempotencyRecord r set r.lockedAt = :now where r.id = :id " +
+            "and r.status = com.ourstore.ourstorebackend.entities.IdempotencyRecord.Status.IN_PROGRESS " +
+            "and r.lockedAt < :staleBefore")
+    int takeOverStaleClaim(String id, LocalDateTime now, LocalDateTime staleBefore);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set " +
+            "r.status = com.ourstore.ourstorebackend.entities.IdempotencyRecord.Status.COMPLETED, " +
+            "r.responseStatus = :responseStatus, r.responseBody = :responseBody where r.id = :id")
+    int complete(String id, int responseStatus, String responseBody);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(LocalDateTime now);
+}
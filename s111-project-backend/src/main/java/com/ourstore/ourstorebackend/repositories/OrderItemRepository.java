@@ -1,13 +1,25 @@
 package com.ourstore.ourstorebackend.repositories;
 
-import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.dto.ProductQuantity;
 import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
+
+    // The lines of a whole page of orders in one query; lines carry their own product
+    // snapshot, so products are not joined
+    @Query("select oi from OrderItem oi where oi.order.id in :orderIds order by oi.id")
+    List<OrderItem> findAllByOrderIdIn(Collection<Long> orderIds);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.ProductQuantity(oi.product.id, sum(oi.quantity)) " +
+            "from OrderItem oi where oi.order.id = :orderId group by oi.product.id")
+    List<ProductQuantity> sumQuantitiesByOrderId(Long orderId);
 }
@@ -1,13 +1,69 @@
 package com.ourstore.ourstorebackend.repositories;
 
+import com.ourstore.ourstorebackend.dto.AdminOrderDetail;
+import com.ourstore.ourstorebackend.dto.OrderStatusRow;
 import com.ourstore.ourstorebackend.entities.Order;
 import com.ourstore.ourstorebackend.entities.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
     List<Order> findByUser(User user);
+
+    // Order history pages, newest first; ties on orderDate are broken by id
+    @Query("select o from Order o where o.user.id = :userId order by o.orderDate desc, o.id desc")
+    List<Order> findHistoryFirstPage(Long userId, Limit limit);
+
+    @Query("select o from Order o where o.user.id = :userId " +
+            "and (o.orderDate < :orderDate or (o.orderDate = :orderDate and o.id < :id)) " +
+            "order by o.orderDate desc, o.id desc")
+    List<Order> findHistoryAfter(Long userId, LocalDateTime orderDate, Long id, Limit limit);
+
+    @Query("select o.id from Order o where o.status = com.ourstore.ourstorebackend.entities.Order.OrderStatus.PENDING " +
+            "and o.stockReserved = true and o.reservedUntil < :now order by o.reservedUntil")
+    List<Long> findExpiredReservations(LocalDateTime now, Limit limit);
+
+    // The stockReserved guard makes each of these succeed at most once per order, so
+    // an admin cancel racing the expiry sweep restocks only once.
+    @Modifying
+    @Query("update Order o set o.status = com.ourstore.ourstorebackend.entities.Order.OrderStatus.CANCELLED, " +
+            "o.stockReserved = false, o.reservedUntil = null, o.lastUpdated = :now, o.version = o.version + 1 " +
+            "where o.id = :id and o.stockReserved = true " +
+            "and o.status = com.ourstore.ourstorebackend.entities.Order.OrderStatus.PENDING and o.reservedUntil < :now")
+    int expireReservation(Long id, LocalDateTime now);
+
+    @Modifying
+    @Query("update Order o set o.stockReserved = false, o.reservedUntil = null, o.lastUpdated = :now, " +
+            "o.version = o.version + 1 " +
+            "where o.id = :id and o.stockReserved = true and o.status in (" +
+            "com.ourstore.ourstorebackend.entities.Order.OrderStatus.PENDING, " +
+            "com.ourstore.ourstorebackend.entities.Order.OrderStatus.PROCESSING)")
+    int releaseReservation(Long id, LocalDateTime now);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.AdminOrderDetail(o.id, o.orderTrackingNumber, u.id, " +
+            "u.username, o.status, o.paymentStatus, o.paymentMethod, o.shippingAddress, o.billingAddress, " +
+            "o.totalQuantity, o.totalPrice, o.orderDate, o.lastUpdated, o.stockReserved, o.reservedUntil) " +
+            "from Order o join o.user u where o.id = :id")
+    Optional<AdminOrderDetail> findAdminDetailById(Long id);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.OrderStatusRow(o.id, o.status) from Order o where o.id in :ids")
+    List<OrderStatusRow> findStatusesByIdIn(Collection<Long> ids);
+
+    // Moves every listed order that is still in one of the from statuses; leaving
+    // PENDING confirms the order, so any reservation deadline is cleared too
+    @Modifying
+    @Query("update Order o set o.status = :target, o.reservedUntil = null, o.lastUpdated = :now, " +
+            "o.version = o.version + 1 " +
+            "where o.id in :ids and o.status in :from")
+    int transitionStatus(Collection<Long> ids, Collection<Order.OrderStatus> from, Order.OrderStatus target,
+                         LocalDateTime now);
 }
@@ -0,0 +1,46 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.AdminOrderPage;
+import com.ourstore.ourstorebackend.dto.AdminOrderRow;
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.OrderFilter;
+import com.ourstore.ourstorebackend.dto.OrderSearchCursor;
+
+import java.util.List;
+
+public interface OrderRepositoryCustom {
+
+    // Past this many matches the search reports a lower bound instead of counting on
+    int COUNT_CAP = 10_000;
+
+    // Seeks past the cursor instead of using OFFSET, like the product listing.
+    List<AdminOrderRow> search(OrderFilter filter, OrderSort sort, boolean descending,
+                               OrderSearchCursor after, int limit);
+
+    // Counts matches up to cap + 1 rows, so a broad filter costs a bounded index scan
+    // rather than a full COUNT(*), and returns only the number.
+    long countUpTo(OrderFilter filter, int cap);
+
+    // Resolves the request parameters of the admin search into one bounded page. Only
+    // the first page is counted; later pages reuse the count the client already has.
+    default AdminOrderPage search(OrderFilter filter, String sortKey, String direction,
+                                  String cursor, Integer size) {
+        OrderSort sort = OrderSort.fromProperty(sortKey);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        OrderSearchCursor after = cursor == null || cursor.isBlank()
+                ? null
+                : OrderSearchCursor.decode(cursor, sort, descending);
+        int pageSize = CursorPage.clampSize(size);
+        List<AdminOrderRow> rows = search(filter, sort, descending, after, pageSize + 1);
+        CursorPage<AdminOrderRow> page = CursorPage.of(rows, pageSize,
+                o -> new OrderSearchCursor(sort, descending, sort.keyOf(o), o.id()).encode());
+        Long total = null;
+        Boolean totalExact = null;
+        if (after == null) {
+            long counted = page.hasNext() ? countUpTo(filter, COUNT_CAP) : page.size();
+            totalExact = counted <= COUNT_CAP;
+            total = Math.min(counted, COUNT_CAP);
+        }
+        return new AdminOrderPage(page.items(), page.nextCursor(), page.hasNext(), page.size(), total, totalExact);
+    }
+}
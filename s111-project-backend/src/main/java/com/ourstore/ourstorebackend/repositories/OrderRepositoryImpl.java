@@ -0,0 +1,113 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.AdminOrderRow;
+import com.ourstore.ourstorebackend.dto.OrderFilter;
+import com.ourstore.ourstorebackend.dto.OrderSearchCursor;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+import org.hibernate.query.criteria.JpaDerivedRoot;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.criteria.JpaSubQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderRepositoryImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AdminOrderRow> search(OrderFilter filter, OrderSort sort, boolean descending,
+                                      OrderSearchCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AdminOrderRow> query = cb.createQuery(AdminOrderRow.class);
+        Root<Order> order = query.from(Order.class);
+        Join<Order, User> user = order.join("user");
+        query.select(cb.construct(AdminOrderRow.class,
+                order.get("id"), order.get("orderTrackingNumber"), user.get("id"), user.get("username"),
+                order.get("status"), order.get("paymentStatus"), order.get("paymentMethod"),
+                order.get("totalQuantity"), order.get("totalPrice"), order.get("orderDate"),
+                order.get("lastUpdated")));
+
+        List<Predicate> predicates = filterPredicates(cb, order, filter);
+        if (after != null) {
+            predicates.add(seekPredicate(cb, order, sort, descending, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        Path<?> key = order.get(sort.property());
+        Path<?> id = order.get("id");
+        query.orderBy(descending
+                ? List.of(cb.desc(key), cb.desc(id))
+                : List.of(cb.asc(key), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // select count(*) from (select id from orders where ... limit cap + 1): the rows
+    // are counted in the database, and only the count comes back
+    @Override
+    public long countUpTo(OrderFilter filter, int cap) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<Long> query = cb.createQuery(Long.class);
+        JpaSubQuery<Tuple> matches = query.subquery(Tuple.class);
+        JpaRoot<Order> order = matches.from(Order.class);
+        matches.multiselect(order.get("id").alias("id"));
+        matches.where(filterPredicates(cb, order, filter).toArray(new Predicate[0]));
+        matches.fetch(cap + 1);
+        JpaDerivedRoot<Tuple> capped = query.from(matches);
+        query.select(cb.count(capped.get("id")));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Order> order, OrderFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.status() != null) {
+            predicates.add(cb.equal(order.get("status"), filter.status()));
+        }
+        if (filter.paymentStatus() != null && !filter.paymentStatus().isBlank()) {
+            predicates.add(cb.equal(order.get("paymentStatus"), filter.paymentStatus()));
+        }
+        if (filter.from() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("orderDate"), filter.from().atStartOfDay()));
+        }
+        if (filter.to() != null) {
+            predicates.add(cb.lessThan(order.get("orderDate"), filter.to().plusDays(1).atStartOfDay()));
+        }
+        if (filter.userId() != null) {
+            predicates.add(cb.equal(order.get("user").get("id"), filter.userId()));
+        }
+        if (filter.minTotal() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(order.get("totalPrice"), filter.minTotal()));
+        }
+        if (filter.maxTotal() != null) {
+            predicates.add(cb.lessThanOrEqualTo(order.get("totalPrice"), filter.maxTotal()));
+        }
+        return predicates;
+    }
+
+    // (key, id) > (lastKey, lastId) for ascending order, < for descending.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Predicate seekPredicate(CriteriaBuilder cb, Root<Order> order, OrderSort sort,
+                                   boolean descending, OrderSearchCursor after) {
+        Path<Comparable> key = order.get(sort.property());
+        Path<Long> id = order.get("id");
+        Comparable lastKey = (Comparable) after.key();
+        Predicate pastKey = descending ? cb.lessThan(key, lastKey) : cb.greaterThan(key, lastKey);
+        Predicate pastId = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        return cb.or(pastKey, cb.and(cb.equal(key, lastKey), pastId));
+    }
+}
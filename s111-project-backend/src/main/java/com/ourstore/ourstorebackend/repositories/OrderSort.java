@@ -0,0 +1,48 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.AdminOrderRow;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sort keys supported by the admin order search. The order id is always appended as
+ * a tiebreaker so the ordering is total and pages never overlap.
+ */
+public enum OrderSort {
+    ID("id", AdminOrderRow::id, Long::valueOf),
+    ORDER_DATE("orderDate", AdminOrderRow::orderDate, LocalDateTime::parse),
+    TOTAL_PRICE("totalPrice", AdminOrderRow::totalPrice, BigDecimal::new);
+
+    private final String property;
+    private final Function<AdminOrderRow, Object> extractor;
+    private final Function<String, Object> parser;
+
+    <T> OrderSort(String property, Function<AdminOrderRow, T> extractor, Function<String, T> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public Object keyOf(AdminOrderRow order) {
+        return extractor.apply(order);
+    }
+
+    public Object parse(String raw) {
+        return parser.apply(raw);
+    }
+
+    public static OrderSort fromProperty(String property) {
+        for (OrderSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(property)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + property);
+    }
+}
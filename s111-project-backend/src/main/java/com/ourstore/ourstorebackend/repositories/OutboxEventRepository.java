@@ -0,0 +1,31 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Ids are time ordered, so this drains a partition oldest first
+    @Query("select e from OutboxEvent e where e.status = com.ourstore.ourstorebackend.entities.OutboxEvent.Status.PENDING " +
+            "and e.partitionNo = :partitionNo and e.nextAttemptAt <= :now order by e.id")
+    List<OutboxEvent> findDue(int partitionNo, LocalDateTime now, Limit limit);
+
+    long countByStatus(OutboxEvent.Status status);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(OutboxEvent.Status status);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.status = com.ourstore.ourstorebackend.entities.OutboxEvent.Status.DONE " +
+            "and e.processedAt < :before")
+    int deleteProcessedBefore(LocalDateTime before);
+}
@@ -0,0 +1,23 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.entities.OutboxLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface OutboxLeaseRepository extends JpaRepository<OutboxLease, Integer> {
+
+    // Renews our own lease or takes over a lapsed one; 0 means another replica holds it
+    @Modifying
+    @Query("update OutboxLease l set l.owner = :owner, l.leaseUntil = :until " +
+            "where l.partitionNo = :partitionNo and (l.owner = :owner or l.leaseUntil < :now)")
+    int acquire(int partitionNo, String owner, LocalDateTime now, LocalDateTime until);
+
+    @Modifying
+    @Query("update OutboxLease l set l.owner = null, l.leaseUntil = :now where l.owner = :owner")
+    int releaseAll(String owner, LocalDateTime now);
+}
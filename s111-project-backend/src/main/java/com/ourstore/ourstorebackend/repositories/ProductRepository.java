@@ -1,14 +1,69 @@
 package com.ourstore.ourstorebackend.repositories;
 
+import com.ourstore.ourstorebackend.dto.ProductDetail;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
 import com.ourstore.ourstorebackend.entities.Category;
 import com.ourstore.ourstorebackend.entities.Product;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findTop10ByOrderByAverageRatingDesc();
     List<Product> findByCategory(Category category);
-}
\ No newline at end of file
+
+    @Query("select p.price from Product p where p.id = :id")
+    Optional<BigDecimal> findPriceById(Long id);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.ProductDetail(p.id, p.name, p.description, p.price, " +
+            "p.sku, p.imageUrl, p.stockQuantity, p.active, p.averageRating, p.reviewCount, p.dateCreated, " +
+            "p.lastUpdated, p.version, c.id, c.name) from Product p left join p.category c where p.id = :id")
+    Optional<ProductDetail> findDetailById(Long id);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.ProductDetail$Image(i.id, i.imageUrl, i.altText, i.primary) " +
+            "from ProductImage i where i.product.id = :productId order by i.primary desc, i.id")
+    List<ProductDetail.Image> findImagesByProductId(Long productId);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.ProductSummary(p.id, p.name, p.description, p.price, " +
+            "p.sku, p.imageUrl, p.stockQuantity, p.active, p.averageRating, p.reviewCount, p.dateCreated, " +
+            "p.version, c.id, c.name) from Product p left join p.category c where p.id in :ids")
+    List<ProductSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    // Walks the table in primary key order for index rebuilds
+    @Query("select p from Product p left join fetch p.category where p.id > :afterId order by p.id")
+    List<Product> findChunkAfter(Long afterId, Limit limit);
+
+    // Conditional decrement: a single statement that never takes stock below zero.
+    // Sharded (flash-sale) products never match; their stock is in product_stock_shards.
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity - :quantity, p.lastUpdated = :now, " +
+            "p.version = p.version + 1 " +
+            "where p.id = :id and p.stockQuantity >= :quantity and p.stockShards = 0")
+    int decrementStock(Long id, int quantity, LocalDateTime now);
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = p.stockQuantity + :quantity, p.lastUpdated = :now, " +
+            "p.version = p.version + 1 " +
+            "where p.id = :id and p.stockShards = 0")
+    int incrementStock(Long id, int quantity, LocalDateTime now);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id = :id")
+    Optional<Product> findByIdForUpdate(Long id);
+
+    @Modifying
+    @Query("update Product p set p.stockQuantity = :total, p.lastUpdated = :now, p.version = p.version + 1 " +
+            "where p.id = :id and p.stockShards > 0 and p.stockQuantity <> :total")
+    int updateShardedStockTotal(Long id, int total, LocalDateTime now);
+}
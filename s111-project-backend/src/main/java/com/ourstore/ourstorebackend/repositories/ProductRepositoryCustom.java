@@ -0,0 +1,30 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.ProductCursor;
+import com.ourstore.ourstorebackend.dto.ProductFilter;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
+
+import java.util.List;
+
+public interface ProductRepositoryCustom {
+
+    // Seeks past the cursor instead of using OFFSET, so every page costs the same
+    // index range scan no matter how deep into the catalog it is.
+    List<ProductSummary> findPage(ProductFilter filter, ProductSort sort, boolean descending,
+                           ProductCursor after, int limit);
+
+    // Resolves the request parameters of a listing endpoint into one bounded page.
+    default CursorPage<ProductSummary> findPage(ProductFilter filter, String sortKey, String direction,
+                                         String cursor, Integer size) {
+        ProductSort sort = ProductSort.fromProperty(sortKey);
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        ProductCursor after = cursor == null || cursor.isBlank()
+                ? null
+                : ProductCursor.decode(cursor, sort, descending);
+        int pageSize = CursorPage.clampSize(size);
+        List<ProductSummary> rows = findPage(filter, sort, descending, after, pageSize + 1);
+        return CursorPage.of(rows, pageSize,
+                p -> new ProductCursor(sort, descending, sort.keyOf(p), p.id()).encode());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.ProductCursor;
+import com.ourstore.ourstorebackend.dto.ProductFilter;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findPage(ProductFilter filter, ProductSort sort, boolean descending,
+                                         ProductCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> query = cb.createQuery(ProductSummary.class);
+        Root<Product> product = query.from(Product.class);
+        Join<Product, Category> category = product.join("category", JoinType.LEFT);
+        query.select(cb.construct(ProductSummary.class,
+                product.get("id"), product.get("name"), product.get("description"), product.get("price"),
+                product.get("sku"), product.get("imageUrl"), product.get("stockQuantity"),
+                product.get("active"), product.get("averageRating"), product.get("reviewCount"),
+                product.get("dateCreated"), product.get("version"), category.get("id"), category.get("name")));
+
+        List<Predicate> predicates = filterPredicates(cb, product, filter);
+        if (after != null) {
+            predicates.add(seekPredicate(cb, product, sort, descending, after));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        Path<?> key = product.get(sort.property());
+        Path<?> id = product.get("id");
+        query.orderBy(descending
+                ? List.of(cb.desc(key), cb.desc(id))
+                : List.of(cb.asc(key), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Product> product, ProductFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter == null) {
+            return predicates;
+        }
+        if (filter.categoryId() != null) {
+            predicates.add(cb.equal(product.get("category").get("id"), filter.categoryId()));
+        }
+        if (filter.minPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), filter.minPrice()));
+        }
+        if (filter.maxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), filter.maxPrice()));
+        }
+        if (filter.minRating() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("averageRating"), filter.minRating()));
+        }
+        if (filter.inStock() != null) {
+            predicates.add(filter.inStock()
+                    ? cb.greaterThan(product.get("stockQuantity"), 0)
+                    : cb.lessThanOrEqualTo(product.get("stockQuantity"), 0));
+        }
+        if (filter.active() != null) {
+            predicates.add(cb.equal(product.get("active"), filter.active()));
+        }
+        return predicates;
+    }
+
+    // (key, id) > (lastKey, lastId) for ascending order, < for descending. Null keys
+    // sort lowest, as MySQL orders them: first when ascending, last when descending.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Predicate seekPredicate(CriteriaBuilder cb, Root<Product> product, ProductSort sort,
+                                   boolean descending, ProductCursor after) {
+        Path<Comparable> key = product.get(sort.property());
+        Path<Long> id = product.get("id");
+        Predicate pastId = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+        if (after.key() == null) {
+            Predicate sameKey = cb.and(cb.isNull(key), pastId);
+            return descending ? sameKey : cb.or(cb.isNotNull(key), sameKey);
+        }
+        Comparable lastKey = (Comparable) after.key();
+        Predicate pastKey = descending ? cb.lessThan(key, lastKey) : cb.greaterThan(key, lastKey);
+        Predicate seek = cb.or(pastKey, cb.and(cb.equal(key, lastKey), pastId));
+        return descending ? cb.or(seek, cb.isNull(key)) : seek;
+    }
+}
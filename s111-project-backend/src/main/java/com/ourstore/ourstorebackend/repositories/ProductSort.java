@@ -0,0 +1,50 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.ProductSummary;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Sort keys supported by the keyset-paginated product listing. The product id is
+ * always appended as a tiebreaker so the ordering is total and pages never overlap.
+ */
+public enum ProductSort {
+    ID("id", ProductSummary::id, Long::valueOf),
+    PRICE("price", ProductSummary::price, BigDecimal::new),
+    DATE_CREATED("dateCreated", ProductSummary::dateCreated, LocalDateTime::parse),
+    AVERAGE_RATING("averageRating", ProductSummary::averageRating, Double::valueOf),
+    NAME("name", ProductSummary::name, Function.identity());
+
+    private final String property;
+    private final Function<ProductSummary, Object> extractor;
+    private final Function<String, Object> parser;
+
+    <T> ProductSort(String property, Function<ProductSummary, T> extractor, Function<String, T> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public Object keyOf(ProductSummary product) {
+        return extractor.apply(product);
+    }
+
+    public Object parse(String raw) {
+        return parser.apply(raw);
+    }
+
+    public static ProductSort fromProperty(String property) {
+        for (ProductSort sort : values()) {
+            if (sort.property.equalsIgnoreCase(property)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + property);
+    }
+}
@@ -0,0 +1,47 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.ProductQuantity;
+import com.ourstore.ourstorebackend.entities.ProductStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+
+    @Modifying
+    @Query("update ProductStockShard s set s.quantity = s.quantity - :quantity " +
+            "where s.productId = :productId and s.shardNo = :shardNo and s.quantity >= :quantity")
+    int decrement(Long productId, int shardNo, int quantity);
+
+    @Modifying
+    @Query("update ProductStockShard s set s.quantity = s.quantity + :quantity " +
+            "where s.productId = :productId and s.shardNo = :shardNo")
+    int increment(Long productId, int shardNo, int quantity);
+
+    // Locks in shard order. Callers must not already hold a lock on any of the
+    // product's shards, or two of them can deadlock; see FlashSaleService.take.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ProductStockShard s where s.productId = :productId order by s.shardNo")
+    List<ProductStockShard> lockAllByProductId(Long productId);
+
+    @Query("select s from ProductStockShard s where s.productId = :productId order by s.shardNo")
+    List<ProductStockShard> findAllByProductIdOrdered(Long productId);
+
+    // A plain read, taking no locks; indexed by shard number
+    @Query("select s.quantity from ProductStockShard s where s.productId = :productId order by s.shardNo")
+    List<Integer> findQuantitiesByProductId(Long productId);
+
+    @Query("select new com.ourstore.ourstorebackend.dto.ProductQuantity(s.productId, count(s)) " +
+            "from ProductStockShard s group by s.productId")
+    List<ProductQuantity> countShardsByProduct();
+
+    @Modifying
+    @Query("delete from ProductStockShard s where s.productId = :productId")
+    int deleteAllByProductIdInBulk(Long productId);
+}
@@ -0,0 +1,22 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.SalesTotal;
+import com.ourstore.ourstorebackend.entities.SalesDailyCategory;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyCategoryRepository extends JpaRepository<SalesDailyCategory, SalesDailyCategory.Key> {
+
+    // Best sellers by revenue; scans only the rollup rows of the range and skips rows
+    // whose orders were all voided
+    @Query("select new com.ourstore.ourstorebackend.dto.SalesTotal(s.categoryId, sum(s.revenue), sum(s.units), " +
+            "sum(s.orderCount)) from SalesDailyCategory s where s.day between :from and :to " +
+            "group by s.categoryId having sum(s.orderCount) > 0 order by sum(s.revenue) desc")
+    List<SalesTotal> findTopByRevenue(LocalDate from, LocalDate to, Limit limit);
+}
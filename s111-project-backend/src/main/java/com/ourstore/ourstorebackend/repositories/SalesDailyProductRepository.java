@@ -0,0 +1,22 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.SalesTotal;
+import com.ourstore.ourstorebackend.entities.SalesDailyProduct;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyProductRepository extends JpaRepository<SalesDailyProduct, SalesDailyProduct.Key> {
+
+    // Best sellers by revenue; scans only the rollup rows of the range and skips rows
+    // whose orders were all voided
+    @Query("select new com.ourstore.ourstorebackend.dto.SalesTotal(s.productId, sum(s.revenue), sum(s.units), " +
+            "sum(s.orderCount)) from SalesDailyProduct s where s.day between :from and :to " +
+            "group by s.productId having sum(s.orderCount) > 0 order by sum(s.revenue) desc")
+    List<SalesTotal> findTopByRevenue(LocalDate from, LocalDate to, Limit limit);
+}
@@ -0,0 +1,18 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.dto.DailySales;
+import com.ourstore.ourstorebackend.entities.SalesDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SalesDailyRepository extends JpaRepository<SalesDaily, LocalDate> {
+
+    @Query("select new com.ourstore.ourstorebackend.dto.DailySales(s.day, s.revenue, s.units, s.orderCount) " +
+            "from SalesDaily s where s.day between :from and :to order by s.day")
+    List<DailySales> findDailySales(LocalDate from, LocalDate to);
+}
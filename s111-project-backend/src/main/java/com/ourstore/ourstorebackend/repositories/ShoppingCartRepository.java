@@ -3,9 +3,58 @@ package com.ourstore.ourstorebackend.repositories;
 import com.ourstore.ourstorebackend.entities.ShoppingCart;
 import com.ourstore.ourstorebackend.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @Repository
 public interface ShoppingCartRepository extends JpaRepository<ShoppingCart, Long> {
     ShoppingCart findByUser(User user);
+
+    // Everything checkout reads, in one round trip; category is fetched because the
+    // product's eager @ManyToOne would otherwise load it row by row
+    @Query("select distinct c from ShoppingCart c left join fetch c.cartItems ci " +
+            "left join fetch ci.product p left join fetch p.category where c.user.id = :userId")
+    Optional<ShoppingCart> findForCheckoutByUserId(Long userId);
+
+    @Query("select distinct c from ShoppingCart c left join fetch c.cartItems ci " +
+            "left join fetch ci.product p left join fetch p.category where c.id = :id")
+    Optional<ShoppingCart> findWithItemsById(Long id);
+
+    @Query("select c.lastUpdated from ShoppingCart c where c.user.id = :userId")
+    Optional<LocalDateTime> findLastUpdatedByUserId(Long userId);
+
+    @Query("select max(p.lastUpdated) from CartItem ci join ci.product p where ci.shoppingCart.user.id = :userId")
+    Optional<LocalDateTime> findProductsLastUpdatedByUserId(Long userId);
+
+    @Query("select c.id from ShoppingCart c where c.user.id = :userId")
+    Optional<Long> findIdByUserId(Long userId);
+
+    @Query("select c.version from ShoppingCart c where c.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    // Totals move by the added quantity at the line's own unit price, which for an
+    // existing line is the price it was first added at
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE shopping_carts SET total_items = total_items + :quantity, " +
+            "total_price = total_price + :quantity * (SELECT unit_price FROM cart_items " +
+            "WHERE shopping_cart_id = :cartId AND product_id = :productId), last_updated = :now, " +
+            "version = version + 1 WHERE id = :cartId", nativeQuery = true)
+    int addLineToTotals(Long cartId, Long productId, int quantity, LocalDateTime now);
+
+    // Matches nothing if the cart changed since the caller read its version and the line
+    @Modifying(clearAutomatically = true)
+    @Query("update ShoppingCart c set c.totalItems = c.totalItems - :quantity, " +
+            "c.totalPrice = c.totalPrice - :amount, c.lastUpdated = :now, c.version = c.version + 1 " +
+            "where c.id = :id and c.version = :version")
+    int removeFromTotals(Long id, Long version, int quantity, BigDecimal amount, LocalDateTime now);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update ShoppingCart c set c.totalItems = 0, c.totalPrice = 0, c.lastUpdated = :now, " +
+            "c.version = c.version + 1 where c.id = :id")
+    int resetTotals(Long id, LocalDateTime now);
 }
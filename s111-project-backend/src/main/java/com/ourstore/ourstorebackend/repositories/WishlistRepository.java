@@ -3,9 +3,19 @@ package com.ourstore.ourstorebackend.repositories;
 import com.ourstore.ourstorebackend.entities.User;
 import com.ourstore.ourstorebackend.entities.Wishlist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 @Repository
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
     Wishlist findByUser(User user);
+
+    @Query("select w.lastUpdated from Wishlist w where w.user.id = :userId")
+    Optional<LocalDateTime> findLastUpdatedByUserId(Long userId);
+
+    @Query("select max(p.lastUpdated) from Wishlist w join w.products p where w.user.id = :userId")
+    Optional<LocalDateTime> findProductsLastUpdatedByUserId(Long userId);
 }
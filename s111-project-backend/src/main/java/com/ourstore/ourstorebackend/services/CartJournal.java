@@ -0,0 +1,110 @@
+package com.ourstore.ourstorebackend.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of cart changes, one line per change, split into numbered segment
+ * files. The flusher seals the current segment before it writes carts out and deletes
+ * the sealed segments once they are in the database; whatever segments are left at
+ * startup are replayed.
+ */
+final class CartJournal implements AutoCloseable {
+
+    private static final String PREFIX = "cart-journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final boolean fsync;
+    private FileChannel current;
+    private long segmentNo;
+
+    CartJournal(Path dir, boolean fsync) {
+        this.dir = dir;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(dir);
+            List<Path> existing = segments();
+            segmentNo = existing.isEmpty() ? 0 : number(existing.get(existing.size() - 1));
+            open(segmentNo + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open cart journal in " + dir, e);
+        }
+    }
+
+    // Without fsync a line survives a process crash but not a power loss
+    synchronized void append(String line) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                current.write(buffer);
+            }
+            if (fsync) {
+                current.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to cart journal", e);
+        }
+    }
+
+    /**
+     * Starts a new segment and returns every older one, oldest first.
+     */
+    synchronized List<Path> rotate() {
+        try {
+            current.close();
+            open(segmentNo + 1);
+            List<Path> sealed = new ArrayList<>(segments());
+            sealed.removeIf(path -> number(path) == segmentNo);
+            return sealed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot rotate cart journal", e);
+        }
+    }
+
+    List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(number(a), number(b)))
+                    .toList();
+        }
+    }
+
+    static List<String> read(Path segment) throws IOException {
+        return Files.readAllLines(segment, StandardCharsets.UTF_8);
+    }
+
+    void delete(List<Path> segments) throws IOException {
+        for (Path segment : segments) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        current.close();
+    }
+
+    private void open(long number) throws IOException {
+        segmentNo = number;
+        current = FileChannel.open(dir.resolve(String.format("%s%020d%s", PREFIX, number, SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static long number(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
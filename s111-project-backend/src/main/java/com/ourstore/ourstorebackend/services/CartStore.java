@@ -0,0 +1,43 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import com.ourstore.ourstorebackend.dto.CartView;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and changes users' carts. {@link JpaCartStore} works on the tables directly;
+ * {@link WriteBehindCartStore} keeps active carts in memory and is enabled with
+ * {@code ourstore.cart.write-behind.enabled}.
+ */
+public interface CartStore {
+
+    // Empty if the user has no cart yet
+    Optional<LocalDateTime> lastUpdated(Long userId);
+
+    // Newest lastUpdated of the products in the cart, whose names and prices the view
+    // embeds; empty if the cart has no lines
+    Optional<LocalDateTime> productsLastUpdated(Long userId);
+
+    // Creates the cart on first use
+    CartView get(Long userId);
+
+    CartView addItem(Long userId, Long productId, int quantity);
+
+    // Operations are already validated; unknown products are rejected before anything changes
+    CartView apply(Long userId, List<CartBatchRequest.Operation> operations);
+
+    // Empty if the user has no cart
+    Optional<CartView> removeItem(Long userId, Long itemId);
+
+    void clear(Long userId);
+
+    /**
+     * Called inside the checkout transaction before the cart is read, so that the
+     * tables hold everything the user has put in the cart.
+     */
+    default void beforeCheckout(Long userId) {
+    }
+}
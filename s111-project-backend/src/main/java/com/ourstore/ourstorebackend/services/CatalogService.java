@@ -0,0 +1,192 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.config.CacheConfig;
+import com.ourstore.ourstorebackend.dto.CategoryDetail;
+import com.ourstore.ourstorebackend.dto.CategorySummary;
+import com.ourstore.ourstorebackend.dto.Freshness;
+import com.ourstore.ourstorebackend.dto.ProductDetail;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Cached catalog reads plus the product/category writes that must invalidate them.
+ * Every catalog write goes through here so the caches never serve a stale entry
+ * after the write has committed. Writes evict from their change events once the
+ * transaction commits: evicting when the method returns would let a concurrent read
+ * cache the pre-commit row again while a caller's transaction is still open.
+ * <p>
+ * That still leaves a window: a product detail read that loaded the old row before the
+ * commit, or inside a transaction whose snapshot predates it, can finish after the
+ * eviction and cache what it read. Product details are therefore evicted a second time
+ * {@code ourstore.cache.products.re-evict-after} later. A read slower than that can
+ * still leave a stale entry until the cache TTL expires it.
+ */
+@Service
+public class CatalogService {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final TaskScheduler taskScheduler;
+    private final Duration reEvictAfter;
+
+    public CatalogService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                          ApplicationEventPublisher eventPublisher, CacheManager cacheManager,
+                          TaskScheduler taskScheduler,
+                          @Value("${ourstore.cache.products.re-evict-after:1s}") Duration reEvictAfter) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.taskScheduler = taskScheduler;
+        this.reEvictAfter = reEvictAfter;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_DETAILS, sync = true)
+    public ProductDetail getProductDetail(Long id) {
+        ProductDetail detail = productRepository.findDetailById(id).orElseThrow();
+        return detail.withImages(productRepository.findImagesByProductId(id));
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_LIST, key = "'all'", sync = true)
+    public List<CategorySummary> getCategories() {
+        return categoryRepository.findAllSummaries();
+    }
+
+    // Not cached: this is the validator that tells clients whether the cached list changed
+    public Freshness getCategoryFreshness() {
+        return categoryRepository.findFreshness();
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORY_DETAILS, sync = true)
+    public CategoryDetail getCategoryDetail(Long id) {
+        return categoryRepository.findDetailById(id).orElseThrow();
+    }
+
+    public Product saveProduct(Product product) {
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
+    }
+
+    public Product updateProduct(Long id, Product updated) {
+        // The client sends the version it read, so it never overwrites a newer edit or stock change
+        if (updated.getVersion() == null) {
+            throw new IllegalArgumentException("version is required: send the version of the product being edited");
+        }
+        Product existing = productRepository.findById(id).orElseThrow();
+        if (!updated.getVersion().equals(existing.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        existing.setName(updated.getName());
+        existing.setDescription(updated.getDescription());
+        existing.setPrice(updated.getPrice());
+        if (existing.getStockShards() > 0 && !existing.getStockQuantity().equals(updated.getStockQuantity())) {
+            throw new IllegalArgumentException("Stock of a flash-sale product lives in its shards; "
+                    + "disable flash sale before setting it");
+        }
+        existing.setStockQuantity(updated.getStockQuantity());
+        existing.setSku(updated.getSku());
+        existing.setImageUrl(updated.getImageUrl());
+        existing.setActive(updated.getActive());
+        Product saved = productRepository.save(existing);
+        eventPublisher.publishEvent(ProductChangedEvent.saved(saved));
+        return saved;
+    }
+
+    public void deleteProduct(Long id) {
+        productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    // Bulk imports write through JDBC and bypass the per-product evictions above
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_DETAILS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.CATEGORY_DETAILS, allEntries = true)
+    })
+    public void evictProductCaches() {
+    }
+
+    // Category details carry a product count, so product writes drop them too
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evictProductDetail(event.productId());
+        clear(CacheConfig.CATEGORY_DETAILS);
+    }
+
+    // Stock moves through bulk updates during checkout; only the affected details go
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        event.productIds().forEach(this::evictProductDetail);
+    }
+
+    // Product details embed the category name, and deleting a category cascades
+    // to its products, so category writes clear every catalog cache.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        clear(CacheConfig.CATEGORY_LIST);
+        clear(CacheConfig.CATEGORY_DETAILS);
+        clear(CacheConfig.PRODUCT_DETAILS);
+    }
+
+    public Category saveCategory(Category category) {
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public Category updateCategory(Long id, Category updated) {
+        Category existing = categoryRepository.findById(id).orElseThrow();
+        existing.setName(updated.getName());
+        existing.setDescription(updated.getDescription());
+        existing.setImageUrl(updated.getImageUrl());
+        existing.setActive(updated.getActive());
+        Category saved = categoryRepository.save(existing);
+        eventPublisher.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    public void deleteCategory(Long id) {
+        categoryRepository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id));
+    }
+
+    private void evictProductDetail(Long id) {
+        evict(CacheConfig.PRODUCT_DETAILS, id);
+        if (!reEvictAfter.isZero() && !reEvictAfter.isNegative()) {
+            taskScheduler.schedule(() -> evict(CacheConfig.PRODUCT_DETAILS, id), Instant.now().plus(reEvictAfter));
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
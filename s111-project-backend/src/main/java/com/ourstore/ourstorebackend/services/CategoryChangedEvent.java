@@ -0,0 +1,8 @@
+package com.ourstore.ourstorebackend.services;
+
+/**
+ * Published after a category is saved or deleted. Deleting a category cascades to its
+ * products, so listeners cannot rely on per-product events for it.
+ */
+public record CategoryChangedEvent(Long categoryId) {
+}
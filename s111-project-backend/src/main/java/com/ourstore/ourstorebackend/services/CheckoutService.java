@@ -0,0 +1,140 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.CartItem;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.entities.ShoppingCart;
+import com.ourstore.ourstorebackend.repositories.CartItemRepository;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import com.ourstore.ourstorebackend.repositories.ShoppingCartRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Turns a user's cart into a PENDING order, reserving stock for every line in the
+ * same transaction. If {@code ourstore.inventory.reservation-ttl} is set, the
+ * reservation lapses after it unless the order moves on from PENDING; unset, the
+ * stock stays taken until the order is cancelled. Everything else that follows an
+ * order is recorded in the outbox and runs after commit.
+ */
+@Service
+public class CheckoutService {
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartStore cartStore;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final ConflictRetry conflictRetry;
+    private final Duration reservationTtl;
+
+    public CheckoutService(ShoppingCartRepository shoppingCartRepository, CartStore cartStore,
+                           CartItemRepository cartItemRepository,
+                           OrderRepository orderRepository, InventoryService inventoryService,
+                           OutboxService outboxService, ConflictRetry conflictRetry,
+                           @Value("${ourstore.inventory.reservation-ttl:}") Duration reservationTtl) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartStore = cartStore;
+        this.cartItemRepository = cartItemRepository;
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+        this.outboxService = outboxService;
+        this.conflictRetry = conflictRetry;
+        this.reservationTtl = reservationTtl;
+    }
+
+    /**
+     * Returns empty if the cart is empty. Round trips are constant in the number of
+     * lines: one fetch-join read of the cart, one batch of stock decrements, batched
+     * order and order item inserts, one outbox insert, one bulk delete of the cart
+     * lines and one cart update, all in a single transaction.
+     * A checkout that loses a race for flash-sale shards, or is picked as a deadlock
+     * victim, is run again from the start.
+     */
+    public Optional<Order> placeOrder(Long userId) {
+        return conflictRetry.execute(() -> placeOrderOnce(userId));
+    }
+
+    private Optional<Order> placeOrderOnce(Long userId) {
+        cartStore.beforeCheckout(userId);
+        ShoppingCart cart = shoppingCartRepository.findForCheckoutByUserId(userId).orElse(null);
+        if (cart == null || cart.getCartItems().isEmpty()) {
+            return Optional.empty();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Order order = new Order();
+        order.setUser(cart.getUser());
+        order.setOrderDate(now);
+        order.setStatus(Order.OrderStatus.PENDING);
+
+        long totalCents = 0;
+        int totalQty = 0;
+        Map<Long, Integer> quantities = new HashMap<>();
+
+        for (CartItem ci : cart.getCartItems()) {
+            OrderItem oi = new OrderItem();
+            oi.setOrder(order);
+            oi.setProduct(ci.getProduct());
+            oi.setQuantity(ci.getQuantity());
+            oi.setUnitPrice(ci.getUnitPrice());
+            oi.setProductName(ci.getProduct().getName());
+            oi.setProductSku(ci.getProduct().getSku());
+            oi.setProductImageUrl(ci.getProduct().getImageUrl());
+            oi.setCategoryId(ci.getProduct().getCategory() != null ? ci.getProduct().getCategory().getId() : null);
+            order.getOrderItems().add(oi);
+            quantities.merge(ci.getProduct().getId(), ci.getQuantity(), Integer::sum);
+            totalQty += ci.getQuantity();
+            totalCents = Money.add(totalCents, Money.lineTotal(ci.getUnitPrice(), ci.getQuantity()));
+        }
+
+        // Throws before anything is written if any line is short
+        inventoryService.reserve(quantities);
+        order.setStockReserved(true);
+        order.setReservedUntil(reservationTtl != null ? now.plus(reservationTtl) : null);
+        order.setTotalQuantity(totalQty);
+        order.setTotalPrice(Money.toBigDecimal(totalCents));
+        orderRepository.save(order);
+        // Follow-up work runs from the outbox after commit instead of in this request
+        outboxService.publish(OutboxService.ORDER_PLACED, order.getId(),
+                orderPlacedPayload(order, cart.getUser().getId()));
+
+        // One DELETE instead of orphan removal row by row; the loaded collection is
+        // left as is so the flush does not try to remove the lines again
+        cartItemRepository.deleteAllByCartIdInBulk(cart.getId());
+        cart.setTotalItems(0);
+        cart.setTotalPrice(BigDecimal.ZERO);
+        cart.setLastUpdated(now);
+        return Optional.of(order);
+    }
+
+    private static Map<String, Object> orderPlacedPayload(Order order, Long userId) {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem oi : order.getOrderItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", oi.getProduct().getId());
+            item.put("quantity", oi.getQuantity());
+            item.put("unitPrice", oi.getUnitPrice());
+            items.add(item);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", userId);
+        payload.put("orderDate", order.getOrderDate());
+        payload.put("totalQuantity", order.getTotalQuantity());
+        payload.put("totalPrice", order.getTotalPrice());
+        payload.put("items", items);
+        return payload;
+    }
+}
@@ -0,0 +1,340 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.entities.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams products and orders to an output stream as CSV or NDJSON. Rows come from a
+ * forward-only JDBC cursor and are written as they arrive, so memory use does not
+ * depend on table size.
+ */
+@Service
+public class ExportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.sku, p.name, p.description, p.price, p.stock_quantity, p.image_url, p.active,
+                   p.category_id, c.name AS category_name, p.average_rating, p.review_count,
+                   p.date_created, p.last_updated
+            FROM products p LEFT JOIN categories c ON c.id = p.category_id
+            ORDER BY p.id
+            """;
+
+    // Ordered by order then item so each order's items arrive together and can be
+    // grouped without holding more than one order at a time.
+    private static final String ORDERS_SQL = """
+            SELECT o.id, o.order_tracking_number, o.user_id, u.username, o.status, o.total_price,
+                   o.total_quantity, o.payment_method, o.payment_status, o.order_date, o.last_updated,
+                   oi.id AS item_id, oi.product_id, oi.product_sku AS sku, oi.product_name, oi.quantity,
+                   oi.unit_price
+            FROM orders o
+            JOIN users u ON u.id = o.user_id
+            LEFT JOIN order_items oi ON oi.order_id = o.id
+            WHERE (? IS NULL OR o.order_date >= ?) AND (? IS NULL OR o.order_date < ?) AND (? IS NULL OR o.status = ?)
+            ORDER BY o.id, oi.id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                         @Value("${ourstore.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public void exportProducts(Format format, OutputStream out) throws IOException {
+        RowWriter writer = open(format, out);
+        writer.header("id", "sku", "name", "description", "price", "stockQuantity", "imageUrl", "active",
+                "categoryId", "categoryName", "averageRating", "reviewCount", "dateCreated", "lastUpdated");
+        stream(PRODUCTS_SQL, ps -> { }, rs -> writer.row(
+                "id", rs.getLong("id"),
+                "sku", rs.getString("sku"),
+                "name", rs.getString("name"),
+                "description", rs.getString("description"),
+                "price", rs.getBigDecimal("price"),
+                "stockQuantity", rs.getInt("stock_quantity"),
+                "imageUrl", rs.getString("image_url"),
+                "active", rs.getBoolean("active"),
+                "categoryId", rs.getObject("category_id", Long.class),
+                "categoryName", rs.getString("category_name"),
+                "averageRating", rs.getBigDecimal("average_rating"),
+                "reviewCount", rs.getObject("review_count", Integer.class),
+                "dateCreated", timestamp(rs, "date_created"),
+                "lastUpdated", timestamp(rs, "last_updated")));
+        writer.close();
+    }
+
+    /**
+     * CSV has one line per order item with the order columns repeated; NDJSON has one
+     * line per order with its items nested.
+     */
+    public void exportOrders(Format format, LocalDateTime from, LocalDateTime to, Order.OrderStatus status,
+                             OutputStream out) throws IOException {
+        RowWriter writer = open(format, out);
+        writer.header("orderId", "trackingNumber", "userId", "username", "status", "totalPrice", "totalQuantity",
+                "paymentMethod", "paymentStatus", "orderDate", "lastUpdated",
+                "itemId", "productId", "sku", "productName", "quantity", "unitPrice");
+        OrderGrouper grouper = new OrderGrouper(writer);
+        stream(ORDERS_SQL, ps -> {
+            Timestamp fromTs = from != null ? Timestamp.valueOf(from) : null;
+            Timestamp toTs = to != null ? Timestamp.valueOf(to) : null;
+            String statusName = status != null ? status.name() : null;
+            ps.setTimestamp(1, fromTs);
+            ps.setTimestamp(2, fromTs);
+            ps.setTimestamp(3, toTs);
+            ps.setTimestamp(4, toTs);
+            ps.setString(5, statusName);
+            ps.setString(6, statusName);
+        }, grouper::accept);
+        grouper.finish();
+        writer.close();
+    }
+
+    private void stream(String sql, StatementBinder binder, RowConsumer consumer) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // With useCursorFetch=true MySQL serves this from a server-side cursor
+            // instead of sending the whole result set up front
+            ps.setFetchSize(fetchSize);
+            binder.bind(ps);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            try {
+                consumer.accept(rs);
+            } catch (IOException e) {
+                // Typically the client went away; abandon the cursor
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private RowWriter open(Format format, OutputStream out) throws IOException {
+        if (format == Format.CSV) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            return new CsvRowWriter(writer);
+        }
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // One value per line: NDJSON separates root values with a newline
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        return new NdjsonRowWriter(generator);
+    }
+
+    private static LocalDateTime timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    private final class OrderGrouper {
+        private final RowWriter writer;
+        private Long currentOrderId;
+        private Object[] currentOrder;
+        private final List<Object[]> currentItems = new ArrayList<>();
+
+        private OrderGrouper(RowWriter writer) {
+            this.writer = writer;
+        }
+
+        void accept(ResultSet rs) throws SQLException, IOException {
+            long orderId = rs.getLong("id");
+            Object[] order = {
+                    "orderId", orderId,
+                    "trackingNumber", rs.getString("order_tracking_number"),
+                    "userId", rs.getLong("user_id"),
+                    "username", rs.getString("username"),
+                    "status", rs.getString("status"),
+                    "totalPrice", rs.getBigDecimal("total_price"),
+                    "totalQuantity", rs.getInt("total_quantity"),
+                    "paymentMethod", rs.getString("payment_method"),
+                    "paymentStatus", rs.getString("payment_status"),
+                    "orderDate", timestamp(rs, "order_date"),
+                    "lastUpdated", timestamp(rs, "last_updated")};
+            Long itemId = rs.getObject("item_id", Long.class);
+            Object[] item = itemId == null ? null : new Object[]{
+                    "itemId", itemId,
+                    "productId", rs.getObject("product_id", Long.class),
+                    "sku", rs.getString("sku"),
+                    "productName", rs.getString("product_name"),
+                    "quantity", rs.getInt("quantity"),
+                    "unitPrice", rs.getBigDecimal("unit_price")};
+            if (currentOrderId != null && currentOrderId != orderId) {
+                finish();
+            }
+            currentOrderId = orderId;
+            currentOrder = order;
+            if (item != null) {
+                currentItems.add(item);
+            }
+        }
+
+        void finish() throws IOException {
+            if (currentOrder != null) {
+                writer.nested(currentOrder, "items", currentItems);
+            }
+            currentOrderId = null;
+            currentOrder = null;
+            currentItems.clear();
+        }
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException, IOException;
+    }
+
+    /** Rows are passed as alternating name/value pairs. */
+    private interface RowWriter {
+        void header(String... names) throws IOException;
+
+        void row(Object... namesAndValues) throws IOException;
+
+        // A row with child rows under it; flat formats repeat the parent on each child's line
+        void nested(Object[] namesAndValues, String childrenName, List<Object[]> children) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final CsvRecordWriter csv;
+        private int columns;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+            this.csv = new CsvRecordWriter(writer);
+        }
+
+        @Override
+        public void header(String... names) throws IOException {
+            columns = names.length;
+            csv.write((Object[]) names);
+        }
+
+        @Override
+        public void row(Object... namesAndValues) throws IOException {
+            // Trailing columns missing from the row (an order without items) stay empty
+            Object[] values = new Object[columns];
+            for (int i = 1; i < namesAndValues.length; i += 2) {
+                values[i / 2] = namesAndValues[i];
+            }
+            csv.write(values);
+        }
+
+        @Override
+        public void nested(Object[] namesAndValues, String childrenName, List<Object[]> children)
+                throws IOException {
+            if (children.isEmpty()) {
+                row(namesAndValues);
+                return;
+            }
+            Object[] line = Arrays.copyOf(namesAndValues, namesAndValues.length + children.get(0).length);
+            for (Object[] child : children) {
+                System.arraycopy(child, 0, line, namesAndValues.length, child.length);
+                row(line);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        private NdjsonRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public void header(String... names) {
+            // NDJSON is self-describing
+        }
+
+        @Override
+        public void row(Object... namesAndValues) throws IOException {
+            empty = false;
+            writeObject(namesAndValues);
+        }
+
+        @Override
+        public void nested(Object[] namesAndValues, String childrenName, List<Object[]> children) throws IOException {
+            empty = false;
+            generator.writeStartObject();
+            writeFields(namesAndValues);
+            generator.writeArrayFieldStart(childrenName);
+            for (Object[] child : children) {
+                writeObject(child);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void writeObject(Object[] namesAndValues) throws IOException {
+            generator.writeStartObject();
+            writeFields(namesAndValues);
+            generator.writeEndObject();
+        }
+
+        private void writeFields(Object[] namesAndValues) throws IOException {
+            for (int i = 0; i < namesAndValues.length; i += 2) {
+                String name = (String) namesAndValues[i];
+                Object value = namesAndValues[i + 1];
+                if (value == null) {
+                    generator.writeNullField(name);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumberField(name, decimal);
+                } else if (value instanceof Long number) {
+                    generator.writeNumberField(name, number);
+                } else if (value instanceof Integer number) {
+                    generator.writeNumberField(name, number);
+                } else if (value instanceof Boolean flag) {
+                    generator.writeBooleanField(name, flag);
+                } else {
+                    generator.writeStringField(name, value.toString());
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
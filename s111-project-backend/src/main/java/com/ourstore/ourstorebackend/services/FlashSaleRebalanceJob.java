@@ -0,0 +1,26 @@
+package com.ourstore.ourstorebackend.services;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically evens out flash-sale shards, which drift apart as random picks drain
+ * some faster than others, and refreshes each replica's view of which products are
+ * sharded.
+ */
+@Component
+public class FlashSaleRebalanceJob {
+
+    private final FlashSaleService flashSaleService;
+
+    public FlashSaleRebalanceJob(FlashSaleService flashSaleService) {
+        this.flashSaleService = flashSaleService;
+    }
+
+    @Scheduled(fixedDelayString = "${ourstore.flash-sale.rebalance-interval:PT5S}")
+    public void rebalance() {
+        for (Long productId : flashSaleService.refreshShardedProducts()) {
+            flashSaleService.rebalance(productId);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.ProductQuantity;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.ProductStockShard;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.ProductStockShardRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Flash-sale mode for hot products: the product's stock is split across N rows of
+ * product_stock_shards and each checkout decrements one randomly chosen shard that
+ * can cover it. Stock that ends up spread too thinly for any single shard is gathered
+ * across all shards under row locks, and a periodic rebalance evens the shards out
+ * and refreshes the displayed total on the product.
+ */
+@Service
+public class FlashSaleService {
+
+    public static final int MAX_SHARDS = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductStockShardRepository shardRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Lets checkouts of ordinary products skip the shard table. It may briefly lag
+    // another replica's enable/disable; InventoryService falls back either way.
+    private final Map<Long, Integer> shardCounts = new ConcurrentHashMap<>();
+
+    public FlashSaleService(ProductRepository productRepository, ProductStockShardRepository shardRepository,
+                            ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.shardRepository = shardRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadShardedProducts() {
+        refreshShardedProducts();
+    }
+
+    // Shard rows carry no foreign key, so they are dropped with their product here
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            shardRepository.deleteAllByProductIdInBulk(event.productId());
+            shardCounts.remove(event.productId());
+        }
+    }
+
+    public boolean isSharded(Long productId) {
+        return shardCounts.containsKey(productId);
+    }
+
+    @Transactional
+    public List<ProductStockShard> enable(Long productId, int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("shards must be between 1 and " + MAX_SHARDS);
+        }
+        Product product = productRepository.findByIdForUpdate(productId).orElseThrow();
+        int total = product.getStockShards() > 0
+                ? sum(shardRepository.lockAllByProductId(productId))
+                : product.getStockQuantity();
+        shardRepository.deleteAllByProductIdInBulk(productId);
+        List<ProductStockShard> created = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            created.add(new ProductStockShard(productId, shard, share(total, shards, shard)));
+        }
+        shardRepository.saveAll(created);
+        product.setStockShards(shards);
+        product.setStockQuantity(total);
+        product.setLastUpdated(LocalDateTime.now());
+        shardCounts.put(productId, shards);
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        return created;
+    }
+
+    @Transactional
+    public Product disable(Long productId) {
+        Product product = productRepository.findByIdForUpdate(productId).orElseThrow();
+        if (product.getStockShards() > 0) {
+            product.setStockQuantity(sum(shardRepository.lockAllByProductId(productId)));
+            shardRepository.deleteAllByProductIdInBulk(productId);
+            product.setStockShards(0);
+            product.setLastUpdated(LocalDateTime.now());
+        }
+        shardCounts.remove(productId);
+        eventPublisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        return product;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProductStockShard> getShards(Long productId) {
+        return shardRepository.findAllByProductIdOrdered(productId);
+    }
+
+    /**
+     * Takes stock from the product's shards. Returns false if the product has no
+     * shards (it is not in flash-sale mode); throws if the shards together are short.
+     * <p>
+     * A conditional UPDATE that finds its shard short still keeps the row lock until
+     * commit, so shard locks are only ever taken in ascending shard order: probes
+     * start at a random shard that looked big enough and move up, and a gather locks
+     * every shard from the first but is only attempted holding none of them. When
+     * every probe loses its race the checkout is rolled back and retried rather than
+     * gathering on top of the probe locks.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean take(Long productId, int quantity) {
+        List<Integer> quantities = shardRepository.findQuantitiesByProductId(productId);
+        if (quantities.isEmpty()) {
+            return false;
+        }
+        List<Integer> candidates = new ArrayList<>();
+        for (int shard = 0; shard < quantities.size(); shard++) {
+            if (quantities.get(shard) >= quantity) {
+                candidates.add(shard);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            int start = ThreadLocalRandom.current().nextInt(candidates.size());
+            for (int i = start; i < candidates.size(); i++) {
+                if (shardRepository.decrement(productId, candidates.get(i), quantity) == 1) {
+                    return true;
+                }
+            }
+            throw new ConcurrencyFailureException("Flash-sale shards of product " + productId
+                    + " were taken while probing them");
+        }
+        // No single shard can cover the line: gather across all of them
+        List<ProductStockShard> locked = shardRepository.lockAllByProductId(productId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        if (sum(locked) < quantity) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+        int remaining = quantity;
+        for (ProductStockShard shard : locked) {
+            int taken = Math.min(shard.getQuantity(), remaining);
+            shard.setQuantity(shard.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /** Returns stock to a random shard. Returns false if the product has no shards. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean give(Long productId, int quantity) {
+        int shards = shardCountHint(productId);
+        if (shardRepository.increment(productId, ThreadLocalRandom.current().nextInt(shards), quantity) == 1) {
+            return true;
+        }
+        List<ProductStockShard> locked = shardRepository.lockAllByProductId(productId);
+        if (locked.isEmpty()) {
+            return false;
+        }
+        locked.get(0).setQuantity(locked.get(0).getQuantity() + quantity);
+        return true;
+    }
+
+    /**
+     * Spreads a product's stock evenly over its shards again and publishes the total
+     * to products.stock_quantity for listings and the in-stock facet.
+     */
+    @Transactional
+    public void rebalance(Long productId) {
+        List<ProductStockShard> locked = shardRepository.lockAllByProductId(productId);
+        if (locked.isEmpty()) {
+            return;
+        }
+        int total = sum(locked);
+        for (int i = 0; i < locked.size(); i++) {
+            locked.get(i).setQuantity(share(total, locked.size(), i));
+        }
+        if (productRepository.updateShardedStockTotal(productId, total, LocalDateTime.now()) > 0) {
+            eventPublisher.publishEvent(new StockChangedEvent(Set.of(productId)));
+        }
+    }
+
+    public Set<Long> refreshShardedProducts() {
+        Map<Long, Integer> current = new HashMap<>();
+        for (ProductQuantity counted : shardRepository.countShardsByProduct()) {
+            current.put(counted.productId(), Math.toIntExact(counted.quantity()));
+        }
+        shardCounts.keySet().retainAll(current.keySet());
+        shardCounts.putAll(current);
+        return current.keySet();
+    }
+
+    private int shardCountHint(Long productId) {
+        // Only picks which shard gets returned stock; a stale count means the
+        // increment misses and the locked fallback runs, never a wrong result.
+        return shardCounts.getOrDefault(productId, 1);
+    }
+
+    private static int sum(List<ProductStockShard> shards) {
+        return shards.stream().mapToInt(ProductStockShard::getQuantity).sum();
+    }
+
+    private static int share(int total, int shards, int shard) {
+        return total / shards + (shard < total % shards ? 1 : 0);
+    }
+}
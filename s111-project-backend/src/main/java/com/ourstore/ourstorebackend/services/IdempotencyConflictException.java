@@ -0,0 +1,19 @@
+package com.ourstore.ourstorebackend.services;
+
+/**
+ * The Idempotency-Key is still being processed by another request, or was first used
+ * with a different request body.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    private final boolean inProgress;
+
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+
+    public boolean isInProgress() {
+        return inProgress;
+    }
+}
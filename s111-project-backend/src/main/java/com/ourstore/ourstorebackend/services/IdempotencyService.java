@@ -0,0 +1,203 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.config.CacheConfig;
+import com.ourstore.ourstorebackend.entities.IdempotencyRecord;
+import com.ourstore.ourstorebackend.repositories.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write at most once per Idempotency-Key. The first request claims the key in
+ * the shared idempotency_keys table, then performs the write and records its response
+ * in one transaction, so a retry either replays that response or, if the write rolled
+ * back, performs it afresh. That transaction goes through {@link ConflictRetry}, so a
+ * write that loses a race is run again while the claim holds, just as it would be
+ * without a key. Completed responses are also kept in a local cache so most replays
+ * never reach the database.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String CLAIM_SQL = "INSERT INTO idempotency_keys "
+            + "(id, request_hash, status, locked_at, expires_at) VALUES (?, ?, 'IN_PROGRESS', ?, ?)";
+
+    private final IdempotencyRecordRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConflictRetry conflictRetry;
+    private final TransactionTemplate newTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Cache replayCache;
+    private final Duration ttl;
+    private final Duration claimTimeout;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager, ConflictRetry conflictRetry,
+                              ObjectMapper objectMapper,
+                              CacheManager cacheManager,
+                              @Value("${ourstore.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${ourstore.idempotency.claim-timeout:1m}") Duration claimTimeout) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.conflictRetry = conflictRetry;
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.replayCache = cacheManager.getCache(CacheConfig.IDEMPOTENCY_RESPONSES);
+        this.ttl = ttl;
+        this.claimTimeout = claimTimeout;
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used for {@code scope}, in
+     * which case the recorded response is returned instead. Without a key the action
+     * simply runs.
+     *
+     * @param scope   the endpoint and its path variables, so keys never collide across
+     *                endpoints or users
+     * @param request the request body, or null; reusing a key with a different body
+     *                is rejected
+     */
+    public ResponseEntity<Object> execute(String key, String scope, Object request, Supplier<?> action) {
+        if (key == null || key.isBlank()) {
+            return ResponseEntity.ok(action.get());
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = sha256(scope + "\n" + key);
+        String requestHash = sha256(request == null ? "" : toJson(request));
+
+        Cache.ValueWrapper cached = replayCache.get(id);
+        Replay replay = cached != null ? (Replay) cached.get() : claim(id, requestHash);
+        if (replay != null) {
+            if (!replay.requestHash().equals(requestHash)) {
+                throw new IdempotencyConflictException(HEADER + " was already used with a different request", false);
+            }
+            replayCache.put(id, replay);
+            return replay.toResponse(objectMapper);
+        }
+
+        Replay completed;
+        Object body;
+        try {
+            Object[] result = new Object[1];
+            completed = conflictRetry.execute(() -> {
+                result[0] = action.get();
+                String json = toJson(result[0]);
+                repository.complete(id, 200, json);
+                return new Replay(200, json, requestHash);
+            });
+            body = result[0];
+        } catch (RuntimeException e) {
+            // The write rolled back for good, so free the key for the client's retry
+            newTransactionTemplate.executeWithoutResult(status -> repository.deleteById(id));
+            throw e;
+        }
+        replayCache.put(id, completed);
+        return ResponseEntity.ok(body);
+    }
+
+    @Scheduled(fixedDelayString = "${ourstore.idempotency.cleanup-interval:10m}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    /** Returns null once this request owns the key, or the response to replay. */
+    private Replay claim(String id, String requestHash) {
+        // Two attempts: the row may expire or be released between insert and read
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                newTransactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(CLAIM_SQL, id, requestHash,
+                        Timestamp.valueOf(now), Timestamp.valueOf(now.plus(ttl))));
+                return null;
+            } catch (DuplicateKeyException e) {
+                IdempotencyRecord existing = newTransactionTemplate.execute(
+                        status -> repository.findById(id).orElse(null));
+                if (existing == null) {
+                    continue;
+                }
+                if (existing.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    return new Replay(existing.getResponseStatus(), existing.getResponseBody(),
+                            existing.getRequestHash());
+                }
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    throw new IdempotencyConflictException(HEADER + " was already used with a different request",
+                            false);
+                }
+                Integer takenOver = newTransactionTemplate.execute(
+                        status -> repository.takeOverStaleClaim(id, now, now.minus(claimTimeout)));
+                if (takenOver != null && takenOver == 1) {
+                    return null;
+                }
+                throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress",
+                        true);
+            }
+        }
+        throw new IdempotencyConflictException("A request with this " + HEADER + " is still in progress", true);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response is not serializable", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Replay(int status, String body, String requestHash) {
+
+        ResponseEntity<Object> toResponse(ObjectMapper objectMapper) {
+            try {
+                return ResponseEntity.status(status)
+                        .header(REPLAYED_HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body == null ? null : objectMapper.readTree(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored response is not valid JSON", e);
+            }
+        }
+    }
+}
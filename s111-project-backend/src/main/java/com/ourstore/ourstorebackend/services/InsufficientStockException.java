@@ -0,0 +1,21 @@
+package com.ourstore.ourstorebackend.services;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final Long productId;
+    private final long requested;
+
+    public InsufficientStockException(Long productId, long requested) {
+        super("Not enough stock for product " + productId + " (requested " + requested + ")");
+        this.productId = productId;
+        this.requested = requested;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+}
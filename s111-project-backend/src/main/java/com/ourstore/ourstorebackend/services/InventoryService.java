@@ -0,0 +1,139 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.ProductQuantity;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.repositories.OrderItemRepository;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Takes and returns stock with single conditional UPDATE statements instead of
+ * read-modify-write, so concurrent checkouts never oversell and only hold each
+ * product row lock for one statement. Rows are always touched in product id order so
+ * two checkouts sharing products cannot deadlock. Products in flash-sale mode keep
+ * their stock in shards managed by {@link FlashSaleService}.
+ */
+@Service
+public class InventoryService {
+
+    // Same statement as ProductRepository.decrementStock, in plain SQL for batching
+    private static final String DECREMENT_SQL = "UPDATE products SET stock_quantity = stock_quantity - ?, "
+            + "last_updated = ?, version = version + 1 WHERE id = ? AND stock_quantity >= ? AND stock_shards = 0";
+
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final FlashSaleService flashSaleService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final OutboxService outboxService;
+
+    public InventoryService(ProductRepository productRepository, OrderRepository orderRepository,
+                            OrderItemRepository orderItemRepository, FlashSaleService flashSaleService,
+                            JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                            OutboxService outboxService) {
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.flashSaleService = flashSaleService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.outboxService = outboxService;
+    }
+
+    /**
+     * Reserves every line or throws {@link InsufficientStockException}; runs inside the
+     * caller's transaction so a failed line rolls back the lines already taken.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<Long, Integer> quantitiesByProductId) {
+        TreeMap<Long, Integer> ordered = new TreeMap<>(quantitiesByProductId);
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+
+        // Ordinary products go out as one JDBC batch, still in id order; this relies on
+        // the driver reporting a row count per statement, which Connector/J does
+        List<Long> batchedIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        List<Long> shardedIds = new ArrayList<>();
+        ordered.forEach((productId, quantity) -> {
+            if (flashSaleService.isSharded(productId)) {
+                shardedIds.add(productId);
+            } else {
+                batchedIds.add(productId);
+                batchArgs.add(new Object[]{quantity, timestamp, productId, quantity});
+            }
+        });
+        int[] counts = batchArgs.isEmpty() ? new int[0] : jdbcTemplate.batchUpdate(DECREMENT_SQL, batchArgs);
+        for (int i = 0; i < counts.length; i++) {
+            Long productId = batchedIds.get(i);
+            // A miss may be a product another replica just put into flash-sale mode
+            if (counts[i] != 1 && !flashSaleService.take(productId, ordered.get(productId))) {
+                throw new InsufficientStockException(productId, ordered.get(productId));
+            }
+        }
+        for (Long productId : shardedIds) {
+            int quantity = ordered.get(productId);
+            if (!flashSaleService.take(productId, quantity)
+                    && productRepository.decrementStock(productId, quantity, now) == 0) {
+                throw new InsufficientStockException(productId, quantity);
+            }
+        }
+        eventPublisher.publishEvent(new StockChangedEvent(ordered.keySet()));
+    }
+
+    /**
+     * Cancels a PENDING order whose reservation has lapsed and puts its stock back.
+     * Returns false if the order was paid, cancelled or already expired meanwhile.
+     */
+    @Transactional
+    public boolean expireReservation(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.expireReservation(orderId, now) == 0) {
+            return false;
+        }
+        restock(orderId, now);
+        outboxService.publishStatusChange(orderId, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+        return true;
+    }
+
+    /**
+     * Returns the stock held by an order that is being cancelled before it shipped.
+     * Orders placed before reservations existed hold none and are left alone.
+     */
+    @Transactional
+    public boolean releaseReservation(Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.releaseReservation(orderId, now) == 0) {
+            return false;
+        }
+        restock(orderId, now);
+        return true;
+    }
+
+    private void restock(Long orderId, LocalDateTime now) {
+        TreeMap<Long, Integer> ordered = new TreeMap<>();
+        List<ProductQuantity> quantities = orderItemRepository.sumQuantitiesByOrderId(orderId);
+        for (ProductQuantity line : quantities) {
+            ordered.put(line.productId(), Math.toIntExact(line.quantity()));
+        }
+        ordered.forEach((productId, quantity) -> {
+            if (productRepository.incrementStock(productId, quantity, now) == 0) {
+                flashSaleService.give(productId, quantity);
+            }
+        });
+        eventPublisher.publishEvent(new StockChangedEvent(ordered.keySet()));
+    }
+}
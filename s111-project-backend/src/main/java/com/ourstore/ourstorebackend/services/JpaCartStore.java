@@ -0,0 +1,244 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.entities.CartItem;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.ShoppingCart;
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.CartItemRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.ShoppingCartRepository;
+import com.ourstore.ourstorebackend.repositories.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Default cart store: every call reads and writes the cart tables. Changes are
+ * targeted statements on single lines with the cart totals kept by arithmetic
+ * updates, so their cost does not grow with the size of the cart.
+ */
+@Service
+@ConditionalOnProperty(name = "ourstore.cart.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final ConflictRetry conflictRetry;
+
+    public JpaCartStore(ShoppingCartRepository shoppingCartRepository, CartItemRepository cartItemRepository,
+                        ProductRepository productRepository, UserRepository userRepository,
+                        ConflictRetry conflictRetry) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.conflictRetry = conflictRetry;
+    }
+
+    @Override
+    public Optional<LocalDateTime> lastUpdated(Long userId) {
+        return shoppingCartRepository.findLastUpdatedByUserId(userId);
+    }
+
+    @Override
+    public Optional<LocalDateTime> productsLastUpdated(Long userId) {
+        return shoppingCartRepository.findProductsLastUpdatedByUserId(userId);
+    }
+
+    @Override
+    public CartView get(Long userId) {
+        return conflictRetry.execute(() -> {
+            ShoppingCart cart = shoppingCartRepository.findForCheckoutByUserId(userId).orElse(null);
+            return toView(cart != null ? cart : create(userId));
+        });
+    }
+
+    /**
+     * A fixed number of statements however many lines the cart has: upsert the line,
+     * move the totals. Reading the cart back for the response is one more query.
+     */
+    @Override
+    public CartView addItem(Long userId, Long productId, int quantity) {
+        return conflictRetry.execute(() -> {
+            BigDecimal price = productRepository.findPriceById(productId).orElseThrow();
+            Long cartId = shoppingCartRepository.findIdByUserId(userId).orElseGet(() -> create(userId).getId());
+            cartItemRepository.upsertQuantity(SnowflakeIds.next(), cartId, productId, quantity, price);
+            shoppingCartRepository.addLineToTotals(cartId, productId, quantity, LocalDateTime.now());
+            return view(cartId);
+        });
+    }
+
+    /**
+     * Works out every line's final quantity first, then changes the loaded cart and
+     * saves it once: one read of the products, one of the cart with its lines, one
+     * flush. A line removed and re-added in the same batch is updated in place rather
+     * than deleted and inserted again under the unique key.
+     */
+    @Override
+    public CartView apply(Long userId, List<CartBatchRequest.Operation> operations) {
+        return conflictRetry.execute(() -> {
+            Set<Long> productIds = operations.stream()
+                    .filter(op -> op.type() != CartBatchRequest.Type.REMOVE)
+                    .map(CartBatchRequest.Operation::productId)
+                    .collect(Collectors.toSet());
+            Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (Long productId : productIds) {
+                if (!products.containsKey(productId)) {
+                    throw new IllegalArgumentException("Unknown product " + productId);
+                }
+            }
+
+            ShoppingCart cart = shoppingCartRepository.findForCheckoutByUserId(userId).orElseGet(() -> create(userId));
+            Map<Long, CartItem> lines = new HashMap<>();
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            for (CartItem item : cart.getCartItems()) {
+                lines.put(item.getProduct().getId(), item);
+                quantities.put(item.getProduct().getId(), item.getQuantity());
+            }
+            // Lines that are new, or dropped and added back, take the current price
+            Set<Long> repriced = new HashSet<>();
+            for (CartBatchRequest.Operation op : operations) {
+                int current = quantities.getOrDefault(op.productId(), 0);
+                int next = switch (op.type()) {
+                    case ADD -> current + op.quantity();
+                    case SET -> op.quantity();
+                    case REMOVE -> 0;
+                };
+                if (current == 0 && next > 0) {
+                    repriced.add(op.productId());
+                }
+                quantities.put(op.productId(), next);
+            }
+
+            quantities.forEach((productId, quantity) -> {
+                CartItem item = lines.get(productId);
+                if (quantity == 0) {
+                    if (item != null) {
+                        cart.getCartItems().remove(item);
+                    }
+                    return;
+                }
+                if (item == null) {
+                    item = new CartItem();
+                    item.setShoppingCart(cart);
+                    item.setProduct(products.get(productId));
+                    cart.getCartItems().add(item);
+                }
+                item.setQuantity(quantity);
+                if (repriced.contains(productId)) {
+                    item.setUnitPrice(products.get(productId).getPrice());
+                }
+            });
+            recalculateTotals(cart);
+            // Versioned, so a single-line change that landed meanwhile makes this retry
+            return toView(saveBatch(cart));
+        });
+    }
+
+    // A single add can insert a line this batch is also adding before it moves the
+    // cart version; flushing here makes that duplicate retry like any other conflict
+    private ShoppingCart saveBatch(ShoppingCart cart) {
+        try {
+            return shoppingCartRepository.saveAndFlush(cart);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().endsWith(CartItem.UNIQUE_LINE)) {
+                throw new ConcurrencyFailureException("A line was added to cart " + cart.getId()
+                        + " concurrently", e);
+            }
+            throw e;
+        }
+    }
+
+    // The totals update only matches the cart version read before the line, so a
+    // concurrent change to the line makes the attempt roll back and retry
+    @Override
+    public Optional<CartView> removeItem(Long userId, Long itemId) {
+        return conflictRetry.execute(() -> {
+            Long cartId = shoppingCartRepository.findIdByUserId(userId).orElse(null);
+            if (cartId == null) {
+                return Optional.empty();
+            }
+            Long version = shoppingCartRepository.findVersionById(cartId).orElseThrow();
+            CartItem line = cartItemRepository.findByIdAndShoppingCartId(itemId, cartId).orElse(null);
+            if (line != null && cartItemRepository.deleteByIdAndCartId(itemId, cartId) > 0) {
+                BigDecimal amount = Money.toBigDecimal(Money.lineTotal(line.getUnitPrice(), line.getQuantity()));
+                if (shoppingCartRepository.removeFromTotals(cartId, version, line.getQuantity(), amount,
+                        LocalDateTime.now()) == 0) {
+                    throw new ObjectOptimisticLockingFailureException(ShoppingCart.class, cartId);
+                }
+            }
+            return Optional.of(view(cartId));
+        });
+    }
+
+    @Override
+    public void clear(Long userId) {
+        conflictRetry.run(() -> shoppingCartRepository.findIdByUserId(userId).ifPresent(cartId -> {
+            cartItemRepository.deleteAllByCartIdInBulk(cartId);
+            shoppingCartRepository.resetTotals(cartId, LocalDateTime.now());
+        }));
+    }
+
+    // A user has one cart, so when two first calls race to create it the loser fails
+    // the unique key on user_id and retries, reading the winner's cart
+    private ShoppingCart create(Long userId) {
+        User user = userRepository.findById(userId).orElseThrow();
+        ShoppingCart cart = new ShoppingCart();
+        cart.setUser(user);
+        try {
+            return shoppingCartRepository.save(cart);
+        } catch (DataIntegrityViolationException e) {
+            throw new ConcurrencyFailureException("The cart of user " + userId + " was created concurrently", e);
+        }
+    }
+
+    private static void recalculateTotals(ShoppingCart cart) {
+        int totalItems = 0;
+        long totalCents = 0;
+        for (CartItem item : cart.getCartItems()) {
+            totalItems += item.getQuantity();
+            totalCents = Money.add(totalCents, Money.lineTotal(item.getUnitPrice(), item.getQuantity()));
+        }
+        cart.setTotalItems(totalItems);
+        cart.setTotalPrice(Money.toBigDecimal(totalCents));
+        // Line changes live in cart_items, so the cart row would not look dirty on its own
+        cart.setLastUpdated(LocalDateTime.now());
+    }
+
+    private CartView view(Long cartId) {
+        return toView(shoppingCartRepository.findWithItemsById(cartId).orElseThrow());
+    }
+
+    private static CartView toView(ShoppingCart cart) {
+        List<CartView.Line> lines = cart.getCartItems().stream().map(ci -> {
+            Product product = ci.getProduct();
+            CartView.Product productView = product == null ? null : new CartView.Product(product.getId(),
+                    product.getName(), product.getDescription(), product.getPrice(), product.getImageUrl());
+            return new CartView.Line(ci.getId(), ci.getQuantity(), ci.getUnitPrice(), productView);
+        }).toList();
+        return new CartView(cart.getId(), cart.getTotalItems(), cart.getTotalPrice(), cart.getLastUpdated(), lines);
+    }
+}
@@ -0,0 +1,52 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Warns when an order leaves any of its products at or below the low-stock threshold.
+ */
+@Component
+public class LowStockAlertHandler implements OutboxHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlertHandler.class);
+
+    private final ProductRepository productRepository;
+    private final int threshold;
+
+    public LowStockAlertHandler(ProductRepository productRepository,
+                                @Value("${ourstore.inventory.low-stock-threshold:5}") int threshold) {
+        this.productRepository = productRepository;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public Set<String> eventTypes() {
+        return Set.of(OutboxService.ORDER_PLACED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, JsonNode payload) {
+        List<Long> productIds = new ArrayList<>();
+        for (JsonNode item : payload.path("items")) {
+            productIds.add(item.path("productId").asLong());
+        }
+        for (Product product : productRepository.findAllById(productIds)) {
+            Integer stock = product.getStockQuantity();
+            if (stock != null && stock <= threshold) {
+                log.warn("Product {} ({}) is low on stock: {} left after order {}", product.getId(),
+                        product.getSku(), stock, event.getAggregateId());
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.ourstore.ourstorebackend.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic on amounts held as a {@code long} count of cents. Line totals and
+ * sums on the cart and order paths stay primitive, so a cart of any size costs no
+ * allocations beyond converting each price once; {@link BigDecimal} is only used at
+ * the entity, JDBC and JSON edges. Overflow throws rather than wraps.
+ */
+public final class Money {
+
+    // Matches the DECIMAL(10,2) money columns
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Rounds half up to whole cents, as MySQL does when it stores a price with more
+     * decimals than the column has.
+     */
+    public static long toCents(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    public static long times(long cents, long quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    public static long add(long cents, long moreCents) {
+        return Math.addExact(cents, moreCents);
+    }
+
+    // Unit price times quantity, for one cart or order line
+    public static long lineTotal(BigDecimal unitPrice, long quantity) {
+        return times(toCents(unitPrice), quantity);
+    }
+}
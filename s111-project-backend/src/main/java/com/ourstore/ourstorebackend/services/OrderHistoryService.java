@@ -0,0 +1,82 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.AdminOrderDetail;
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.OrderCursor;
+import com.ourstore.ourstorebackend.dto.OrderSummary;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.repositories.OrderItemRepository;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A customer's orders, newest first, one keyset page at a time. A page costs two
+ * queries however many orders and lines it holds: one for the orders and one for all
+ * of their lines. Lines are rendered from their checkout snapshot, never from the
+ * live product. The admin view of a single order is built the same way.
+ */
+@Service
+public class OrderHistoryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    public OrderHistoryService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<OrderSummary> getOrderHistory(Long userId, String cursor, Integer size) {
+        int pageSize = CursorPage.clampSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = orderRepository.findHistoryFirstPage(userId, limit);
+        } else {
+            OrderCursor after = OrderCursor.decode(cursor);
+            orders = orderRepository.findHistoryAfter(userId, after.orderDate(), after.id(), limit);
+        }
+        CursorPage<Order> page = CursorPage.of(orders, pageSize,
+                o -> new OrderCursor(o.getOrderDate(), o.getId()).encode());
+        if (page.items().isEmpty()) {
+            return new CursorPage<>(List.of(), null, false, 0);
+        }
+
+        Map<Long, List<OrderSummary.Line>> linesByOrder = new HashMap<>();
+        for (OrderItem oi : orderItemRepository.findAllByOrderIdIn(
+                page.items().stream().map(Order::getId).toList())) {
+            // getId() on the uninitialized product proxy reads the foreign key, no query
+            linesByOrder.computeIfAbsent(oi.getOrder().getId(), id -> new ArrayList<>())
+                    .add(new OrderSummary.Line(oi.getProduct().getId(), oi.getProductName(),
+                            oi.getProductSku(), oi.getProductImageUrl(), oi.getQuantity(), oi.getUnitPrice()));
+        }
+        List<OrderSummary> summaries = new ArrayList<>(page.items().size());
+        for (Order o : page.items()) {
+            summaries.add(new OrderSummary(o.getId(), o.getOrderDate(), o.getStatus().name(),
+                    o.getTotalQuantity(), o.getTotalPrice(), o.getOrderTrackingNumber(),
+                    linesByOrder.getOrDefault(o.getId(), List.of())));
+        }
+        return new CursorPage<>(summaries, page.nextCursor(), page.hasNext(), summaries.size());
+    }
+
+    @Transactional(readOnly = true)
+    public AdminOrderDetail getAdminOrderDetail(Long orderId) {
+        AdminOrderDetail order = orderRepository.findAdminDetailById(orderId).orElseThrow();
+        List<AdminOrderDetail.Line> lines = new ArrayList<>();
+        for (OrderItem oi : orderItemRepository.findAllByOrderIdIn(List.of(orderId))) {
+            lines.add(new AdminOrderDetail.Line(oi.getId(), oi.getProduct().getId(), oi.getProductName(),
+                    oi.getProductSku(), oi.getProductImageUrl(), oi.getCategoryId(), oi.getQuantity(),
+                    oi.getUnitPrice()));
+        }
+        return order.withItems(lines);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ourstore.ourstorebackend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Fills the product snapshot on order lines written before checkout started copying
+ * it. Walks order_items by id in chunks, one transaction per chunk, so it never holds
+ * locks on more than a chunk of rows and can resume after a restart. Safe to run on
+ * several replicas at once: each update only touches rows that are still empty.
+ */
+@Component
+public class OrderItemSnapshotBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemSnapshotBackfill.class);
+    private static final String SELECT_SQL = """
+            SELECT oi.id, p.name, p.sku, p.image_url, p.category_id
+            FROM order_items oi JOIN products p ON p.id = oi.product_id
+            WHERE oi.product_name IS NULL AND oi.id > ?
+            ORDER BY oi.id
+            LIMIT ?
+            """;
+    private static final String UPDATE_SQL = "UPDATE order_items SET product_name = ?, product_sku = ?, "
+            + "product_image_url = ?, category_id = ? WHERE id = ? AND product_name IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderItemSnapshotBackfill(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     @Value("${ourstore.orders.snapshot-backfill.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        try {
+            backfill();
+        } catch (DataAccessException e) {
+            log.warn("Order item snapshot backfill stopped; it resumes on the next start", e);
+        }
+    }
+
+    /** Returns the number of order lines filled. */
+    public long backfill() {
+        long filled = 0;
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Object[]> chunk = jdbcTemplate.query(SELECT_SQL,
+                    (rs, rowNum) -> new Object[]{rs.getString(2), rs.getString(3), rs.getString(4),
+                            rs.getObject(5, Long.class), rs.getLong(1)},
+                    from, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, chunk));
+            filled += chunk.size();
+            afterId = (Long) chunk.get(chunk.size() - 1)[4];
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        if (filled > 0) {
+            log.info("Backfilled the product snapshot on {} order items", filled);
+        }
+        return filled;
+    }
+}
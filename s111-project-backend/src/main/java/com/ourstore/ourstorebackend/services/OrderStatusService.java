@@ -0,0 +1,161 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.BulkStatusResult;
+import com.ourstore.ourstorebackend.dto.OrderStatusRow;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves many orders to one status with set-based updates. Each chunk of ids costs one
+ * read of the current statuses and one guarded UPDATE in its own transaction, plus a
+ * re-read only when a concurrent change made the update miss rows. Changes that
+ * affect sales figures are recorded in the outbox in the same transaction.
+ */
+@Service
+public class OrderStatusService {
+
+    public static final int MAX_IDS = 10_000;
+
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public OrderStatusService(OrderRepository orderRepository, InventoryService inventoryService,
+                              OutboxService outboxService, PlatformTransactionManager transactionManager,
+                              @Value("${ourstore.orders.bulk-status.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets one order's status as an admin override; unlike the bulk path this does not
+     * enforce the fulfilment flow. A cancelled order stays cancelled: its stock went
+     * back on sale, so reopening it could oversell.
+     */
+    @Transactional
+    public Order updateStatus(Long id, Order.OrderStatus newStatus) {
+        if (newStatus == Order.OrderStatus.CANCELLED) {
+            // Puts reserved stock back at most once, even if the expiry sweep races us
+            inventoryService.releaseReservation(id);
+        }
+        Order order = orderRepository.findById(id).orElseThrow();
+        Order.OrderStatus previous = order.getStatus();
+        if (previous == Order.OrderStatus.CANCELLED && newStatus != Order.OrderStatus.CANCELLED) {
+            throw new IllegalArgumentException("Order " + id + " is cancelled and cannot be reopened");
+        }
+        order.setStatus(newStatus);
+        if (newStatus != Order.OrderStatus.PENDING) {
+            // Leaving PENDING confirms the order, so the reservation no longer expires
+            order.setReservedUntil(null);
+        }
+        outboxService.publishStatusChange(id, previous, newStatus);
+        return order;
+    }
+
+    public BulkStatusResult transition(List<Long> ids, Order.OrderStatus target) {
+        if (target == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("ids must not be empty");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " orders can be updated at once");
+        }
+        if (target == Order.OrderStatus.CANCELLED) {
+            // Cancelling returns each order's reserved stock, which is per-order work
+            throw new IllegalArgumentException("Orders must be cancelled one at a time");
+        }
+        Set<Order.OrderStatus> from = EnumSet.noneOf(Order.OrderStatus.class);
+        for (Order.OrderStatus status : Order.OrderStatus.values()) {
+            if (status.canMoveTo(target)) {
+                from.add(status);
+            }
+        }
+
+        List<Long> unique = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, BulkStatusResult.Item> results = new HashMap<>();
+        int updated = 0;
+        for (int start = 0; start < unique.size(); start += chunkSize) {
+            List<Long> chunk = unique.subList(start, Math.min(start + chunkSize, unique.size()));
+            Integer moved = transactionTemplate.execute(status -> transitionChunk(chunk, from, target, results));
+            updated += moved == null ? 0 : moved;
+        }
+
+        List<BulkStatusResult.Item> ordered = new ArrayList<>(unique.size());
+        for (Long id : unique) {
+            ordered.add(results.get(id));
+        }
+        return new BulkStatusResult(target, updated, ordered);
+    }
+
+    private int transitionChunk(List<Long> chunk, Set<Order.OrderStatus> from, Order.OrderStatus target,
+                                Map<Long, BulkStatusResult.Item> results) {
+        Map<Long, Order.OrderStatus> current = new HashMap<>();
+        for (OrderStatusRow row : orderRepository.findStatusesByIdIn(chunk)) {
+            current.put(row.id(), row.status());
+        }
+        List<Long> movable = new ArrayList<>();
+        for (Long id : chunk) {
+            Order.OrderStatus status = current.get(id);
+            BulkStatusResult.Outcome outcome;
+            if (status == null) {
+                outcome = BulkStatusResult.Outcome.NOT_FOUND;
+            } else if (status == target) {
+                outcome = BulkStatusResult.Outcome.UNCHANGED;
+            } else if (!from.contains(status)) {
+                outcome = BulkStatusResult.Outcome.INVALID_TRANSITION;
+            } else {
+                movable.add(id);
+                outcome = BulkStatusResult.Outcome.UPDATED;
+            }
+            results.put(id, new BulkStatusResult.Item(id, outcome, status));
+        }
+        if (movable.isEmpty()) {
+            return 0;
+        }
+
+        int moved = orderRepository.transitionStatus(movable, from, target, LocalDateTime.now());
+        if (moved < movable.size()) {
+            // Someone else changed or deleted some of these first; find out which
+            Set<Long> missing = new HashSet<>(movable);
+            for (OrderStatusRow row : orderRepository.findStatusesByIdIn(movable)) {
+                missing.remove(row.id());
+                if (row.status() != target) {
+                    results.put(row.id(), new BulkStatusResult.Item(row.id(), BulkStatusResult.Outcome.CONFLICT,
+                            row.status()));
+                }
+            }
+            for (Long id : missing) {
+                results.put(id, new BulkStatusResult.Item(id, BulkStatusResult.Outcome.NOT_FOUND, null));
+            }
+        }
+        for (Long id : movable) {
+            BulkStatusResult.Item item = results.get(id);
+            if (item.outcome() == BulkStatusResult.Outcome.UPDATED) {
+                outboxService.publishStatusChange(id, item.previousStatus(), target);
+            }
+        }
+        return moved;
+    }
+}
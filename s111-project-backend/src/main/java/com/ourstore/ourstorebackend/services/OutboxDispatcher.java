@@ -0,0 +1,298 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import com.ourstore.ourstorebackend.entities.OutboxLease;
+import com.ourstore.ourstorebackend.repositories.OutboxEventRepository;
+import com.ourstore.ourstorebackend.repositories.OutboxLeaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox in the background. Events are split into partitions and each
+ * partition is drained by whichever replica holds its lease, one batch at a time and
+ * oldest first, on a small worker pool so one slow partition does not hold up the
+ * others. Failed events are retried with exponential backoff and parked as FAILED
+ * after the maximum number of attempts.
+ */
+@Component
+public class OutboxDispatcher implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final String DONE_SQL =
+            "UPDATE outbox_events SET status = 'DONE', attempts = attempts + 1, processed_at = ?, last_error = NULL "
+                    + "WHERE id = ?";
+    private static final String RETRY_SQL =
+            "UPDATE outbox_events SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ? WHERE id = ?";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxLeaseRepository outboxLeaseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Map<String, List<OutboxHandler>> handlers;
+    private final ExecutorService workers;
+    private final String owner;
+    private final int partitions;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final Set<Integer> draining = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private volatile boolean leasesCreated;
+    private volatile LocalDateTime lastPollAt;
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, OutboxLeaseRepository outboxLeaseRepository,
+                            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper, List<OutboxHandler> handlers, OutboxService outboxService,
+                            @Value("${ourstore.outbox.batch-size:100}") int batchSize,
+                            @Value("${ourstore.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${ourstore.outbox.lease-duration:30s}") Duration leaseDuration,
+                            @Value("${ourstore.outbox.initial-backoff:1s}") Duration initialBackoff,
+                            @Value("${ourstore.outbox.max-backoff:10m}") Duration maxBackoff,
+                            @Value("${ourstore.outbox.retention:7d}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxLeaseRepository = outboxLeaseRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.handlers = new HashMap<>();
+        for (OutboxHandler handler : handlers) {
+            for (String eventType : handler.eventTypes()) {
+                this.handlers.computeIfAbsent(eventType, type -> new ArrayList<>()).add(handler);
+            }
+        }
+        this.partitions = outboxService.partitions();
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = leaseDuration;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.owner = hostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.workers = Executors.newFixedThreadPool(partitions, new CustomizableThreadFactory("outbox-"));
+    }
+
+    /**
+     * Hands every partition we can lease and are not already draining to the worker
+     * pool. Returns straight away so the shared scheduler thread is never blocked.
+     */
+    @Scheduled(fixedDelayString = "${ourstore.outbox.poll-interval:500ms}")
+    public void poll() {
+        lastPollAt = LocalDateTime.now();
+        try {
+            createLeases();
+            for (int partition = 0; partition < partitions; partition++) {
+                if (draining.contains(partition) || !acquire(partition)) {
+                    continue;
+                }
+                int leased = partition;
+                draining.add(leased);
+                workers.execute(() -> {
+                    try {
+                        drain(leased);
+                    } catch (RuntimeException e) {
+                        log.warn("Draining outbox partition {} failed", leased, e);
+                    } finally {
+                        draining.remove(leased);
+                    }
+                });
+            }
+        } catch (DataAccessException e) {
+            log.warn("Outbox poll failed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ourstore.outbox.purge-interval:1h}")
+    public void purgeProcessed() {
+        Integer deleted = transactionTemplate.execute(
+                status -> outboxEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(retention)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} processed outbox events", deleted);
+        }
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public Set<Integer> ownedPartitions() {
+        return new TreeSet<>(ownedPartitions);
+    }
+
+    public long dispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    public long retryCount() {
+        return retryCount.get();
+    }
+
+    public long failedCount() {
+        return failedCount.get();
+    }
+
+    public LocalDateTime lastPollAt() {
+        return lastPollAt;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+        // Hand our partitions to the other replicas now rather than after the lease lapses
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> outboxLeaseRepository.releaseAll(owner, LocalDateTime.now()));
+        } catch (DataAccessException e) {
+            log.debug("Could not release outbox leases on shutdown", e);
+        }
+    }
+
+    // Keeps draining while full batches come back, renewing the lease between batches
+    // and stopping as soon as it is lost
+    private void drain(int partition) {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findDue(partition, LocalDateTime.now(), Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            dispatch(batch);
+        } while (batch.size() == batchSize && acquire(partition));
+    }
+
+    private void dispatch(List<OutboxEvent> batch) {
+        List<Object[]> done = new ArrayList<>();
+        List<Object[]> retries = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            LocalDateTime now = LocalDateTime.now();
+            try {
+                handle(event);
+                done.add(new Object[]{Timestamp.valueOf(now), event.getId()});
+            } catch (Exception e) {
+                int attempts = event.getAttempts() + 1;
+                boolean giveUp = attempts >= maxAttempts;
+                String error = String.valueOf(e.getMessage());
+                if (giveUp) {
+                    log.error("Outbox event {} ({}) failed {} times, giving up", event.getId(),
+                            event.getEventType(), attempts, e);
+                } else {
+                    log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(),
+                            event.getEventType(), attempts, error);
+                }
+                retries.add(new Object[]{
+                        (giveUp ? OutboxEvent.Status.FAILED : OutboxEvent.Status.PENDING).name(),
+                        attempts,
+                        Timestamp.valueOf(now.plus(backoff(attempts))),
+                        error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error,
+                        event.getId()});
+                (giveUp ? failedCount : retryCount).incrementAndGet();
+            }
+        }
+        if (!done.isEmpty()) {
+            jdbcTemplate.batchUpdate(DONE_SQL, done);
+            dispatchedCount.addAndGet(done.size());
+        }
+        if (!retries.isEmpty()) {
+            jdbcTemplate.batchUpdate(RETRY_SQL, retries);
+        }
+    }
+
+    private void handle(OutboxEvent event) throws Exception {
+        List<OutboxHandler> forType = handlers.getOrDefault(event.getEventType(), List.of());
+        if (forType.isEmpty()) {
+            return;
+        }
+        JsonNode payload = objectMapper.readTree(event.getPayload());
+        for (OutboxHandler handler : forType) {
+            handler.handle(event, payload);
+        }
+    }
+
+    // Exponential with jitter, so events that failed together do not retry in lockstep
+    private Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = Math.min(Math.max(base, 0), maxBackoff.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private boolean acquire(int partition) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(
+                status -> outboxLeaseRepository.acquire(partition, owner, now, now.plus(leaseDuration)));
+        boolean owned = updated != null && updated == 1;
+        if (owned) {
+            ownedPartitions.add(partition);
+        } else {
+            ownedPartitions.remove(partition);
+        }
+        return owned;
+    }
+
+    private void createLeases() {
+        if (leasesCreated) {
+            return;
+        }
+        for (int partition = 0; partition < partitions; partition++) {
+            if (outboxLeaseRepository.existsById(partition)) {
+                continue;
+            }
+            OutboxLease lease = new OutboxLease();
+            lease.setPartitionNo(partition);
+            lease.setLeaseUntil(LocalDateTime.now());
+            try {
+                outboxLeaseRepository.save(lease);
+            } catch (DataIntegrityViolationException e) {
+                // Another replica created it first
+            }
+        }
+        leasesCreated = true;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+
+import java.util.Set;
+
+/**
+ * Runs one kind of outbox event. Delivery is at least once: an event may be handled
+ * again after a crash or when another handler for the same event fails, so handlers
+ * must be idempotent.
+ */
+public interface OutboxHandler {
+
+    Set<String> eventTypes();
+
+    void handle(OutboxEvent event, JsonNode payload) throws Exception;
+}
@@ -0,0 +1,85 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import com.ourstore.ourstorebackend.repositories.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records side effects in the outbox table as part of the caller's transaction, so
+ * they are dispatched if and only if the business change commits.
+ */
+@Service
+public class OutboxService {
+
+    public static final String ORDER_PLACED = "OrderPlaced";
+    // The order moved into CANCELLED or REFUNDED and no longer counts as a sale
+    public static final String ORDER_VOIDED = "OrderVoided";
+    // The order moved back out of REFUNDED
+    public static final String ORDER_REINSTATED = "OrderReinstated";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final int partitions;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                         @Value("${ourstore.outbox.partitions:4}") int partitions) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.partitions = partitions;
+    }
+
+    /** Records the event when an order's status change affects whether it counts as a sale. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishStatusChange(Long orderId, Order.OrderStatus from, Order.OrderStatus to) {
+        if (from == null || from.countsAsSale() == to.countsAsSale()) {
+            return;
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", orderId);
+        payload.put("previousStatus", from);
+        payload.put("status", to);
+        publish(to.countsAsSale() ? ORDER_REINSTATED : ORDER_VOIDED, orderId, payload);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(String eventType, Long aggregateId, Object payload) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setPartitionNo(partitionOf(aggregateId));
+        event.setPayload(toJson(payload));
+        event.setCreatedAt(now);
+        event.setNextAttemptAt(now);
+        outboxEventRepository.save(event);
+    }
+
+    int partitions() {
+        return partitions;
+    }
+
+    // Snowflake ids end in a sequence that is usually zero, so mix the bits before
+    // taking the modulus or every event would land in partition 0
+    private int partitionOf(Long aggregateId) {
+        long mixed = aggregateId * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed >>> 32), partitions);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+    }
+}
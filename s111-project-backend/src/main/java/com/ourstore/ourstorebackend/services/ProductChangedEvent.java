@@ -0,0 +1,21 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+
+/**
+ * Published after a product is saved or deleted. {@code product} is null for deletes.
+ */
+public record ProductChangedEvent(Long productId, Product product) {
+
+    public static ProductChangedEvent saved(Product product) {
+        return new ProductChangedEvent(product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null);
+    }
+
+    public boolean isDeleted() {
+        return product == null;
+    }
+}
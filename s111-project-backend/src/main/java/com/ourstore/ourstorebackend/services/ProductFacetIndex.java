@@ -0,0 +1,343 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Bitset-per-facet-value index for faceted navigation. Each active product owns a
+ * dense slot; a facet value is the set of slots carrying it. Filtering is a chain of
+ * ANDs and every facet count is one AND plus a cardinality, so a page view costs no
+ * COUNT queries at all. Pages are in product id order, which unlike the slots stays
+ * put across rebuilds and slot reuse.
+ */
+@Component
+public class ProductFacetIndex implements ProductIndex {
+
+    public enum PriceBucket {
+        UNDER_50("0-50", null, new BigDecimal("50")),
+        FROM_50_TO_100("50-100", new BigDecimal("50"), new BigDecimal("100")),
+        FROM_100_TO_250("100-250", new BigDecimal("100"), new BigDecimal("250")),
+        FROM_250_TO_500("250-500", new BigDecimal("250"), new BigDecimal("500")),
+        FROM_500_TO_1000("500-1000", new BigDecimal("500"), new BigDecimal("1000")),
+        OVER_1000("1000+", new BigDecimal("1000"), null);
+
+        private final String label;
+        private final BigDecimal from;
+        private final BigDecimal to;
+
+        PriceBucket(String label, BigDecimal from, BigDecimal to) {
+            this.label = label;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String label() {
+            return label;
+        }
+
+        static PriceBucket of(BigDecimal price) {
+            for (PriceBucket bucket : values()) {
+                if ((bucket.from == null || price.compareTo(bucket.from) >= 0)
+                        && (bucket.to == null || price.compareTo(bucket.to) < 0)) {
+                    return bucket;
+                }
+            }
+            return OVER_1000;
+        }
+
+        public static PriceBucket fromLabel(String label) {
+            for (PriceBucket bucket : values()) {
+                if (bucket.label.equals(label) || bucket.name().equalsIgnoreCase(label)) {
+                    return bucket;
+                }
+            }
+            throw new IllegalArgumentException("Unknown price bucket: " + label);
+        }
+    }
+
+    // "N stars and up" thresholds; a product rated 4.3 counts towards 4, 3, 2 and 1
+    private static final int[] RATING_THRESHOLDS = {4, 3, 2, 1};
+
+    public record Query(Set<Long> categoryIds, Set<PriceBucket> priceBuckets, Integer minRating,
+                        Boolean inStock) {
+    }
+
+    // lastId is the cursor for the next page, null on the last page
+    public record Result(int total, List<Long> productIds, Long lastId,
+                         Map<String, Map<String, Integer>> facets) {
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    /**
+     * Returns up to {@code limit} matching product ids in id order starting after
+     * {@code afterId}, plus counts for every facet value. Each facet's counts ignore
+     * that facet's own selection so shoppers can see what switching to a sibling value
+     * would yield.
+     */
+    public Result query(Query query, Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            Segment s = segment;
+            BitSet categories = s.union(s.byCategory, query.categoryIds());
+            BitSet prices = s.union(s.byPrice, query.priceBuckets());
+            BitSet rating = query.minRating() == null ? null : s.atLeastRating(query.minRating());
+            BitSet stock = query.inStock() == null ? null : (query.inStock() ? s.inStock : s.outOfStock());
+
+            BitSet matches = s.and(categories, prices, rating, stock);
+
+            int total = matches.cardinality();
+            // Walking every product in id order finds a page after about limit * live / total
+            // steps; collecting the smallest ids from the matches takes total steps. Take
+            // whichever is shorter.
+            List<Long> ids = (long) total * total >= (long) limit * s.live.cardinality()
+                    ? s.walkInIdOrder(matches, afterId, limit + 1)
+                    : s.smallestIds(matches, afterId, limit + 1);
+            Long lastId = null;
+            if (ids.size() > limit) {
+                ids = ids.subList(0, limit);
+                lastId = ids.get(limit - 1);
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("category", s.counts(s.byCategory, s.and(prices, rating, stock), String::valueOf));
+            facets.put("price", s.counts(s.byPrice, s.and(categories, rating, stock), PriceBucket::label));
+            BitSet forRating = s.and(categories, prices, stock);
+            Map<String, Integer> ratingCounts = new LinkedHashMap<>();
+            for (int threshold : RATING_THRESHOLDS) {
+                ratingCounts.put(threshold + "+", intersectCount(s.atLeastRating(threshold), forRating));
+            }
+            facets.put("rating", ratingCounts);
+            BitSet forStock = s.and(categories, prices, rating);
+            Map<String, Integer> stockCounts = new LinkedHashMap<>();
+            stockCounts.put("true", intersectCount(s.inStock, forStock));
+            stockCounts.put("false", intersectCount(s.outOfStock(), forStock));
+            facets.put("inStock", stockCounts);
+
+            return new Result(total, ids, lastId, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            segment.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild startRebuild() {
+        Segment next = new Segment();
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                next.add(product);
+            }
+
+            @Override
+            public void commit() {
+                lock.writeLock().lock();
+                try {
+                    segment = next;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    private static int intersectCount(BitSet a, BitSet filter) {
+        if (filter == null) {
+            return a.cardinality();
+        }
+        BitSet copy = (BitSet) a.clone();
+        copy.and(filter);
+        return copy.cardinality();
+    }
+
+    private static final class Segment {
+        final NavigableMap<Long, Integer> slotByProduct = new TreeMap<>();
+        long[] productIds = new long[64];
+        // Freed slots are reused so the bitsets stay dense under churn
+        final Deque<Integer> freeSlots = new ArrayDeque<>();
+        int slotCount;
+
+        final BitSet live = new BitSet();
+        final BitSet inStock = new BitSet();
+        final Map<Long, BitSet> byCategory = new HashMap<>();
+        final Map<PriceBucket, BitSet> byPrice = new EnumMap<>(PriceBucket.class);
+        // byRating[n] holds products rated at least n stars
+        final BitSet[] byRating = new BitSet[6];
+
+        Segment() {
+            for (int i = 0; i < byRating.length; i++) {
+                byRating[i] = new BitSet();
+            }
+        }
+
+        void add(Product product) {
+            remove(product.getId());
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                return;
+            }
+            int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            if (slot >= productIds.length) {
+                productIds = Arrays.copyOf(productIds, productIds.length * 2);
+            }
+            productIds[slot] = product.getId();
+            slotByProduct.put(product.getId(), slot);
+
+            live.set(slot);
+            if (product.getStockQuantity() != null && product.getStockQuantity() > 0) {
+                inStock.set(slot);
+            }
+            Long categoryId = product.getCategory() != null ? product.getCategory().getId() : 0L;
+            byCategory.computeIfAbsent(categoryId, c -> new BitSet()).set(slot);
+            if (product.getPrice() != null) {
+                byPrice.computeIfAbsent(PriceBucket.of(product.getPrice()), b -> new BitSet()).set(slot);
+            }
+            double rating = product.getAverageRating() == null ? 0 : product.getAverageRating();
+            for (int stars = 1; stars <= 5 && rating >= stars; stars++) {
+                byRating[stars].set(slot);
+            }
+        }
+
+        void remove(Long productId) {
+            Integer slot = slotByProduct.remove(productId);
+            if (slot == null) {
+                return;
+            }
+            live.clear(slot);
+            inStock.clear(slot);
+            byCategory.values().removeIf(bits -> {
+                bits.clear(slot);
+                return bits.isEmpty();
+            });
+            byPrice.values().forEach(bits -> bits.clear(slot));
+            for (BitSet bits : byRating) {
+                bits.clear(slot);
+            }
+            freeSlots.push(slot);
+        }
+
+        List<Long> walkInIdOrder(BitSet matches, Long afterId, int limit) {
+            List<Long> ids = new ArrayList<>(limit);
+            Map<Long, Integer> after = afterId == null ? slotByProduct : slotByProduct.tailMap(afterId, false);
+            for (Map.Entry<Long, Integer> entry : after.entrySet()) {
+                if (matches.get(entry.getValue())) {
+                    ids.add(entry.getKey());
+                    if (ids.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return ids;
+        }
+
+        List<Long> smallestIds(BitSet matches, Long afterId, int limit) {
+            // Max-heap of the smallest ids seen so far
+            PriorityQueue<Long> heap = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+            for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                long id = productIds[slot];
+                if (afterId != null && id <= afterId) {
+                    continue;
+                }
+                if (heap.size() < limit) {
+                    heap.offer(id);
+                } else if (id < heap.peek()) {
+                    heap.poll();
+                    heap.offer(id);
+                }
+            }
+            List<Long> ids = new ArrayList<>(heap);
+            Collections.sort(ids);
+            return ids;
+        }
+
+        BitSet atLeastRating(int stars) {
+            if (stars <= 0) {
+                return live;
+            }
+            return byRating[Math.min(stars, 5)];
+        }
+
+        BitSet outOfStock() {
+            BitSet bits = (BitSet) live.clone();
+            bits.andNot(inStock);
+            return bits;
+        }
+
+        <K> BitSet union(Map<K, BitSet> values, Set<K> selected) {
+            if (selected == null || selected.isEmpty()) {
+                return null;
+            }
+            BitSet bits = new BitSet();
+            for (K key : selected) {
+                BitSet value = values.get(key);
+                if (value != null) {
+                    bits.or(value);
+                }
+            }
+            return bits;
+        }
+
+        // ANDs the non-null filters together; null means "facet not selected"
+        BitSet and(BitSet... filters) {
+            BitSet result = (BitSet) live.clone();
+            for (BitSet filter : filters) {
+                if (filter != null) {
+                    result.and(filter);
+                }
+            }
+            return result;
+        }
+
+        <K> Map<String, Integer> counts(Map<K, BitSet> values, BitSet filter,
+                                        Function<K, String> label) {
+            Map<String, Integer> counts = new LinkedHashMap<>();
+            for (Map.Entry<K, BitSet> entry : values.entrySet()) {
+                int count = intersectCount(entry.getValue(), filter);
+                if (count > 0) {
+                    counts.put(label.apply(entry.getKey()), count);
+                }
+            }
+            return counts;
+        }
+    }
+}
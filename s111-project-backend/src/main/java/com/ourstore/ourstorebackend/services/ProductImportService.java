@@ -0,0 +1,311 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.dto.ImportReport;
+import com.ourstore.ourstorebackend.dto.ProductImportRow;
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Streams a CSV or NDJSON product feed straight from the request body and upserts it
+ * by sku with batched JDBC statements, one transaction per chunk. Nothing beyond the
+ * current chunk is held in memory, and invalid rows are reported and skipped rather
+ * than failing the import.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final long LOG_EVERY_ROWS = 50_000;
+
+    // date_created, average_rating and review_count are only set on insert, and the
+    // stock of flash-sale products is left to their shards
+    private static final String UPSERT_SQL = """
+            INSERT INTO products (id, sku, name, description, price, stock_quantity, image_url, active, category_id,
+                                  date_created, last_updated, average_rating, review_count, stock_shards, version)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0)
+            ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description),
+                price = VALUES(price), image_url = VALUES(image_url),
+                stock_quantity = CASE WHEN stock_shards = 0 THEN VALUES(stock_quantity) ELSE stock_quantity END,
+                active = VALUES(active), category_id = VALUES(category_id), last_updated = VALUES(last_updated),
+                version = version + 1
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final CatalogService catalogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    private final Map<String, Progress> running = new ConcurrentHashMap<>();
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                CategoryRepository categoryRepository, CatalogService catalogService,
+                                ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                                @Value("${ourstore.import.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepository = categoryRepository;
+        this.catalogService = catalogService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    public ImportReport importProducts(InputStream body, Format format) {
+        Progress progress = new Progress(UUID.randomUUID().toString());
+        running.put(progress.id, progress);
+        try {
+            Set<Long> categoryIds = new HashSet<>(categoryRepository.findAllIds());
+            BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+            RowSource source = format == Format.CSV ? csvSource(reader) : ndjsonSource(reader);
+            List<ProductImportRow> chunk = new ArrayList<>(batchSize);
+            ParsedRow parsed;
+            while ((parsed = source.next()) != null) {
+                progress.rowsRead++;
+                String error = parsed.error() != null ? parsed.error() : validate(parsed.row(), categoryIds);
+                if (error != null) {
+                    progress.reject(parsed, error);
+                    continue;
+                }
+                chunk.add(parsed.row());
+                if (chunk.size() == batchSize) {
+                    flush(chunk, progress);
+                }
+            }
+            flush(chunk, progress);
+            progress.status = "COMPLETED";
+        } catch (IOException | DataAccessException e) {
+            log.warn("Product import {} aborted after {} rows", progress.id, progress.rowsRead, e);
+            progress.status = "FAILED";
+            progress.reject(new ParsedRow(progress.rowsRead, null, null), "Import aborted: " + e.getMessage());
+        } finally {
+            running.remove(progress.id);
+            if (progress.rowsUpserted > 0) {
+                // Committed chunks stay committed even if a later one failed
+                catalogService.evictProductCaches();
+                eventPublisher.publishEvent(new ProductsImportedEvent(progress.rowsUpserted));
+            }
+        }
+        ImportReport report = progress.report();
+        log.info("Product import {} {}: {} read, {} upserted, {} rejected in {} ms", report.importId(),
+                report.status(), report.rowsRead(), report.rowsUpserted(), report.errorCount(),
+                report.elapsedMillis());
+        return report;
+    }
+
+    public List<ImportReport> runningImports() {
+        return running.values().stream().map(Progress::report).toList();
+    }
+
+    private void flush(List<ProductImportRow> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(UPSERT_SQL, chunk, chunk.size(), (ps, row) -> {
+                    // A fresh id is only used if the sku is new
+                    ps.setLong(1, SnowflakeIds.next());
+                    ps.setString(2, row.sku().trim());
+                    ps.setString(3, row.name().trim());
+                    ps.setString(4, row.description());
+                    ps.setBigDecimal(5, row.price());
+                    ps.setInt(6, row.stockQuantity() != null ? row.stockQuantity() : 0);
+                    ps.setString(7, row.imageUrl());
+                    ps.setBoolean(8, row.active() == null || row.active());
+                    if (row.categoryId() != null) {
+                        ps.setLong(9, row.categoryId());
+                    } else {
+                        ps.setNull(9, Types.BIGINT);
+                    }
+                    ps.setTimestamp(10, now);
+                    ps.setTimestamp(11, now);
+                }));
+        long before = progress.rowsUpserted;
+        progress.rowsUpserted += chunk.size();
+        chunk.clear();
+        if (before / LOG_EVERY_ROWS != progress.rowsUpserted / LOG_EVERY_ROWS) {
+            log.info("Product import {}: {} rows upserted", progress.id, progress.rowsUpserted);
+        }
+    }
+
+    private static String validate(ProductImportRow row, Set<Long> categoryIds) {
+        if (row.sku() == null || row.sku().isBlank()) {
+            return "sku is required";
+        }
+        if (row.sku().trim().length() > MAX_TEXT_LENGTH) {
+            return "sku is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.name() == null || row.name().isBlank()) {
+            return "name is required";
+        }
+        if (row.name().trim().length() > MAX_TEXT_LENGTH) {
+            return "name is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.imageUrl() != null && row.imageUrl().length() > MAX_TEXT_LENGTH) {
+            return "imageUrl is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.price() == null) {
+            return "price is required";
+        }
+        // products.price is DECIMAL(10,2)
+        if (row.price().signum() < 0 || row.price().scale() > 2 || row.price().precision() - row.price().scale() > 8) {
+            return "price must be between 0 and 99999999.99 with at most 2 decimals";
+        }
+        if (row.stockQuantity() != null && row.stockQuantity() < 0) {
+            return "stockQuantity must not be negative";
+        }
+        if (row.categoryId() != null && !categoryIds.contains(row.categoryId())) {
+            return "unknown categoryId " + row.categoryId();
+        }
+        return null;
+    }
+
+    private RowSource ndjsonSource(BufferedReader reader) {
+        long[] line = {0};
+        return () -> {
+            String text;
+            do {
+                text = reader.readLine();
+                line[0]++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+            try {
+                return new ParsedRow(line[0], objectMapper.readValue(text, ProductImportRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(line[0], null, "malformed JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private static RowSource csvSource(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return () -> null;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("sku", "name", "price")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV header is missing the '" + required + "' column");
+            }
+        }
+        return () -> {
+            List<String> fields = csv.next();
+            if (fields == null) {
+                return null;
+            }
+            long line = csv.recordLine();
+            try {
+                ProductImportRow row = new ProductImportRow(
+                        field(fields, columns, "sku"),
+                        field(fields, columns, "name"),
+                        field(fields, columns, "description"),
+                        parse(field(fields, columns, "price"), BigDecimal::new),
+                        parse(field(fields, columns, "stockquantity"), Integer::valueOf),
+                        field(fields, columns, "imageurl"),
+                        parse(field(fields, columns, "active"), Boolean::valueOf),
+                        parse(field(fields, columns, "categoryid"), Long::valueOf));
+                return new ParsedRow(line, row, null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(line, new ProductImportRow(field(fields, columns, "sku"),
+                        null, null, null, null, null, null, null), "invalid number");
+            }
+        };
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        return value == null || value.isBlank() ? null : parser.apply(value.trim());
+    }
+
+    private interface RowSource {
+        ParsedRow next() throws IOException;
+    }
+
+    private record ParsedRow(long line, ProductImportRow row, String error) {
+    }
+
+    // Written only by the importing thread; read racily by the progress endpoint
+    private static final class Progress {
+        private final String id;
+        private final long started = System.currentTimeMillis();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private volatile String status = "RUNNING";
+        private volatile long rowsRead;
+        private volatile long rowsUpserted;
+        private volatile long errorCount;
+
+        private Progress(String id) {
+            this.id = id;
+        }
+
+        private void reject(ParsedRow parsed, String message) {
+            errorCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                synchronized (errors) {
+                    String sku = parsed.row() != null ? parsed.row().sku() : null;
+                    errors.add(new ImportReport.RowError(parsed.line(), sku, message));
+                }
+            }
+        }
+
+        private ImportReport report() {
+            List<ImportReport.RowError> snapshot;
+            synchronized (errors) {
+                snapshot = List.copyOf(errors);
+            }
+            return new ImportReport(id, status, rowsRead, rowsUpserted, errorCount, snapshot,
+                    System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+
+/**
+ * An in-memory read structure derived from the products table. Implementations are
+ * kept current by {@link ProductIndexer}, which feeds them incremental changes and
+ * periodic full rebuilds.
+ */
+public interface ProductIndex {
+
+    void upsert(Product product);
+
+    void remove(Long productId);
+
+    /**
+     * Starts building a replacement index off to the side. The live index keeps serving
+     * reads until {@link Rebuild#commit()} swaps the new one in.
+     */
+    Rebuild startRebuild();
+
+    interface Rebuild {
+
+        void add(Product product);
+
+        void commit();
+    }
+}
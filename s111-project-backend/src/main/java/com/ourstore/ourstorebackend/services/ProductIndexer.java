@@ -0,0 +1,137 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps every {@link ProductIndex} in step with the products table: applies product
+ * change events as they commit and rebuilds all indexes in the background at startup
+ * and after category changes.
+ */
+@Service
+public class ProductIndexer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexer.class);
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> indexes;
+
+    private final Object lock = new Object();
+    // Non-null while a rebuild is running; changes that land meanwhile are replayed
+    // onto the rebuilt indexes so nothing committed during the scan is lost.
+    private List<ProductChangedEvent> pendingReplay;
+    // Set when a rebuild is requested while one is already scanning; the running
+    // rebuild may have passed rows written since, so it runs once more.
+    private boolean rebuildAgain;
+
+    public ProductIndexer(ProductRepository productRepository, List<ProductIndex> indexes) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (lock) {
+            if (pendingReplay != null) {
+                pendingReplay.add(event);
+            }
+            apply(event);
+        }
+    }
+
+    // Reloads the rows because bulk stock updates carry no entity; only the in-stock
+    // facet depends on stock, so staleness here is brief and bounded.
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(StockChangedEvent event) {
+        for (Product product : productRepository.findAllById(event.productIds())) {
+            onProductChanged(ProductChangedEvent.saved(product));
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    @Async
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuild();
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public void rebuild() {
+        synchronized (lock) {
+            if (pendingReplay != null) {
+                rebuildAgain = true;
+                return;
+            }
+            pendingReplay = new ArrayList<>();
+        }
+        boolean again;
+        do {
+            rebuildOnce();
+            synchronized (lock) {
+                again = rebuildAgain;
+                rebuildAgain = false;
+                pendingReplay = again ? new ArrayList<>() : null;
+            }
+        } while (again);
+    }
+
+    private void rebuildOnce() {
+        long started = System.currentTimeMillis();
+        long count = 0;
+        try {
+            List<ProductIndex.Rebuild> rebuilds = indexes.stream().map(ProductIndex::startRebuild).toList();
+            long afterId = Long.MIN_VALUE;
+            List<Product> chunk;
+            do {
+                chunk = productRepository.findChunkAfter(afterId, Limit.of(REBUILD_CHUNK_SIZE));
+                for (Product product : chunk) {
+                    rebuilds.forEach(r -> r.add(product));
+                    afterId = product.getId();
+                }
+                count += chunk.size();
+            } while (chunk.size() == REBUILD_CHUNK_SIZE);
+
+            synchronized (lock) {
+                rebuilds.forEach(ProductIndex.Rebuild::commit);
+                pendingReplay.forEach(this::apply);
+            }
+            log.info("Rebuilt {} product indexes from {} products in {} ms",
+                    indexes.size(), count, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Product index rebuild failed; indexes keep their previous contents", e);
+        }
+    }
+
+    private void apply(ProductChangedEvent event) {
+        for (ProductIndex index : indexes) {
+            if (event.isDeleted()) {
+                index.remove(event.productId());
+            } else {
+                index.upsert(event.product());
+            }
+        }
+    }
+}
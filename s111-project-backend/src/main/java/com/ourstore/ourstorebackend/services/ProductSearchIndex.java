@@ -0,0 +1,279 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over product name, SKU and description, ranked with BM25.
+ * Field weights are folded into term frequencies (a simplified BM25F), so a match in
+ * the name or SKU outranks the same word buried in a description. Only active
+ * products are indexed.
+ */
+@Component
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final int SKU_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Segment segment = new Segment();
+
+    public record Hits(int totalHits, List<Long> productIds) {
+    }
+
+    public Hits search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        String whole = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (!whole.isEmpty() && whole.indexOf(' ') < 0) {
+            terms.add(whole);
+        }
+        if (terms.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = segment.docs.size();
+            if (docCount == 0) {
+                return new Hits(0, List.of());
+            }
+            double avgLength = (double) segment.totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings postings = segment.postings.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - postings.size + 0.5) / (postings.size + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    double tf = postings.freqs[i];
+                    double norm = K1 * (1 - B + B * postings.lengths[i] / avgLength);
+                    scores.merge(postings.ids[i], idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+            return new Hits(scores.size(), topK(scores, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return segment.docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            segment.add(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            segment.remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild startRebuild() {
+        Segment next = new Segment();
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                next.add(product);
+            }
+
+            @Override
+            public void commit() {
+                lock.writeLock().lock();
+                try {
+                    segment = next;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    private static List<Long> topK(Map<Long, Double> scores, int k) {
+        Comparator<Map.Entry<Long, Double>> byRank = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(byRank);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > k) {
+                heap.poll();
+            }
+        }
+        Long[] ranked = new Long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = heap.poll().getKey();
+        }
+        return Arrays.asList(ranked);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // A product's terms with its slot in each term's postings, so removing or
+    // reindexing it touches only its own entries whatever the size of the catalog
+    private static final class Doc {
+        final String[] terms;
+        final int[] slots;
+        final int length;
+
+        Doc(int termCount, int length) {
+            this.terms = new String[termCount];
+            this.slots = new int[termCount];
+            this.length = length;
+        }
+
+        void moveSlot(String term, int slot) {
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].equals(term)) {
+                    slots[i] = slot;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Segment {
+        final Map<String, Postings> postings = new HashMap<>();
+        final Map<Long, Doc> docs = new HashMap<>();
+        long totalLength;
+
+        void add(Product product) {
+            remove(product.getId());
+            if (!Boolean.TRUE.equals(product.getActive())) {
+                return;
+            }
+            Map<String, Integer> freqs = new HashMap<>();
+            int length = addField(freqs, tokenize(product.getName()), NAME_WEIGHT)
+                    + addField(freqs, tokenize(product.getDescription()), DESCRIPTION_WEIGHT);
+            String sku = product.getSku();
+            if (sku != null && !sku.isBlank()) {
+                List<String> skuTokens = new ArrayList<>(tokenize(sku));
+                // Keep the SKU whole as well, so "mba-m2" matches exactly and not just its parts
+                String wholeSku = sku.trim().toLowerCase(Locale.ROOT);
+                if (!skuTokens.contains(wholeSku)) {
+                    skuTokens.add(wholeSku);
+                }
+                length += addField(freqs, skuTokens, SKU_WEIGHT);
+            }
+            if (freqs.isEmpty()) {
+                return;
+            }
+            Doc doc = new Doc(freqs.size(), length);
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+                doc.terms[i] = entry.getKey();
+                doc.slots[i] = postings.computeIfAbsent(entry.getKey(), t -> new Postings())
+                        .add(product.getId(), entry.getValue(), length);
+                i++;
+            }
+            docs.put(product.getId(), doc);
+            totalLength += length;
+        }
+
+        void remove(Long productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) {
+                return;
+            }
+            for (int i = 0; i < doc.terms.length; i++) {
+                String term = doc.terms[i];
+                Postings list = postings.get(term);
+                long moved = list.removeAt(doc.slots[i]);
+                if (moved != Postings.NONE) {
+                    docs.get(moved).moveSlot(term, doc.slots[i]);
+                }
+                if (list.size == 0) {
+                    postings.remove(term);
+                }
+            }
+            totalLength -= doc.length;
+        }
+
+        private static int addField(Map<String, Integer> freqs, List<String> tokens, int weight) {
+            for (String token : tokens) {
+                freqs.merge(token, weight, Integer::sum);
+            }
+            return tokens.size() * weight;
+        }
+    }
+
+    // Parallel primitive arrays rather than a map of boxed entries; unordered, removal
+    // swaps the last entry into the hole.
+    private static final class Postings {
+        static final long NONE = Long.MIN_VALUE;
+
+        long[] ids = new long[4];
+        int[] freqs = new int[4];
+        int[] lengths = new int[4];
+        int size;
+
+        // Returns the slot the entry went into
+        int add(long id, int freq, int length) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                freqs = Arrays.copyOf(freqs, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            ids[size] = id;
+            freqs[size] = freq;
+            lengths[size] = length;
+            return size++;
+        }
+
+        // Returns the id of the entry moved into the slot, or NONE if it was the last
+        long removeAt(int slot) {
+            size--;
+            if (slot == size) {
+                return NONE;
+            }
+            ids[slot] = ids[size];
+            freqs[slot] = freqs[size];
+            lengths[slot] = lengths[size];
+            return ids[slot];
+        }
+    }
+}
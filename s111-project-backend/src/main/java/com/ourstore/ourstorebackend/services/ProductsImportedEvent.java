@@ -0,0 +1,8 @@
+package com.ourstore.ourstorebackend.services;
+
+/**
+ * Published after a bulk import has committed. Imported rows bypass the per-product
+ * change events, so listeners rebuild from the table instead.
+ */
+public record ProductsImportedEvent(long rowCount) {
+}
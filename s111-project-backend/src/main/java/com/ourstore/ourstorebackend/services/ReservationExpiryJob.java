@@ -0,0 +1,57 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically cancels orders that stayed PENDING past their reservation and returns
+ * their stock. Each order is expired in its own transaction.
+ * <p>
+ * Off unless {@code ourstore.inventory.reservation-ttl} is set. Nothing records a
+ * payment on an order yet, so with a TTL every order still PENDING when it runs out
+ * is cancelled, paid or not; set it only once orders leave PENDING on payment.
+ */
+@Component
+@ConditionalOnProperty(name = "ourstore.inventory.reservation-ttl")
+public class ReservationExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReservationExpiryJob.class);
+    private static final int BATCH_SIZE = 100;
+
+    private final OrderRepository orderRepository;
+    private final InventoryService inventoryService;
+
+    public ReservationExpiryJob(OrderRepository orderRepository, InventoryService inventoryService) {
+        this.orderRepository = orderRepository;
+        this.inventoryService = inventoryService;
+    }
+
+    @Scheduled(fixedDelayString = "${ourstore.inventory.expiry-sweep-interval:PT1M}")
+    public void expireReservations() {
+        int expired = 0;
+        int expiredInBatch;
+        List<Long> orderIds;
+        do {
+            orderIds = orderRepository.findExpiredReservations(LocalDateTime.now(), Limit.of(BATCH_SIZE));
+            expiredInBatch = 0;
+            for (Long orderId : orderIds) {
+                if (inventoryService.expireReservation(orderId)) {
+                    expiredInBatch++;
+                }
+            }
+            expired += expiredInBatch;
+            // Stop if a whole batch lost its races rather than re-reading the same rows
+        } while (orderIds.size() == BATCH_SIZE && expiredInBatch > 0);
+        if (expired > 0) {
+            log.info("Expired {} unpaid order reservations", expired);
+        }
+    }
+}
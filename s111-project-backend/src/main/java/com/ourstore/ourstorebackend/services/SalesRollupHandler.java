@@ -0,0 +1,31 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Feeds order events into the daily sales rollups.
+ */
+@Component
+public class SalesRollupHandler implements OutboxHandler {
+
+    private final SalesRollupService salesRollupService;
+
+    public SalesRollupHandler(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    @Override
+    public Set<String> eventTypes() {
+        return Set.of(OutboxService.ORDER_PLACED, OutboxService.ORDER_VOIDED, OutboxService.ORDER_REINSTATED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event, JsonNode payload) {
+        int sign = OutboxService.ORDER_VOIDED.equals(event.getEventType()) ? -1 : 1;
+        salesRollupService.applyOrder(event.getId(), event.getAggregateId(), sign);
+    }
+}
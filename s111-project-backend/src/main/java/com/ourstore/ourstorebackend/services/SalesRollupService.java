@@ -0,0 +1,163 @@
+package com.ourstore.ourstorebackend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the daily sales rollups. Each order adds its lines once when placed and
+ * takes them away again if it is cancelled or refunded, always on the day it was
+ * placed. Changes are applied as signed deltas, which commute, so it does not matter
+ * in which order an order's events arrive. Lines count towards the category their
+ * product was in at checkout, so recategorizing a product never moves past sales.
+ */
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final String LINES_SQL = """
+            SELECT o.order_date, oi.product_id, COALESCE(oi.category_id, 0) AS category_id, oi.quantity, oi.unit_price
+            FROM orders o
+            JOIN order_items oi ON oi.order_id = o.id
+            WHERE o.id = ?
+            """;
+    private static final String MARK_APPLIED_SQL = "INSERT INTO sales_rollup_events (event_id) VALUES (?)";
+    private static final String DAILY_SQL = """
+            INSERT INTO sales_daily (day, revenue, units, order_count) VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units),
+                order_count = order_count + VALUES(order_count)
+            """;
+    private static final String PRODUCT_SQL = """
+            INSERT INTO sales_daily_product (day, product_id, revenue, units, order_count) VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units),
+                order_count = order_count + VALUES(order_count)
+            """;
+    private static final String CATEGORY_SQL = """
+            INSERT INTO sales_daily_category (day, category_id, revenue, units, order_count) VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE revenue = revenue + VALUES(revenue), units = units + VALUES(units),
+                order_count = order_count + VALUES(order_count)
+            """;
+
+    private static final String COUNTED = "o.status NOT IN ('CANCELLED', 'REFUNDED')";
+    private static final String REBUILD_DAILY_SQL = """
+            INSERT INTO sales_daily (day, revenue, units, order_count)
+            SELECT CAST(o.order_date AS DATE), SUM(o.total_price), SUM(o.total_quantity), COUNT(*)
+            FROM orders o
+            WHERE %s
+            GROUP BY CAST(o.order_date AS DATE)
+            """.formatted(COUNTED);
+    private static final String REBUILD_PRODUCT_SQL = """
+            INSERT INTO sales_daily_product (day, product_id, revenue, units, order_count)
+            SELECT CAST(o.order_date AS DATE), oi.product_id, SUM(oi.quantity * oi.unit_price), SUM(oi.quantity),
+                   COUNT(DISTINCT o.id)
+            FROM orders o JOIN order_items oi ON oi.order_id = o.id
+            WHERE %s
+            GROUP BY CAST(o.order_date AS DATE), oi.product_id
+            """.formatted(COUNTED);
+    private static final String REBUILD_CATEGORY_SQL = """
+            INSERT INTO sales_daily_category (day, category_id, revenue, units, order_count)
+            SELECT CAST(o.order_date AS DATE), COALESCE(oi.category_id, 0), SUM(oi.quantity * oi.unit_price),
+                   SUM(oi.quantity), COUNT(DISTINCT o.id)
+            FROM orders o JOIN order_items oi ON oi.order_id = o.id
+            WHERE %s
+            GROUP BY CAST(o.order_date AS DATE), COALESCE(oi.category_id, 0)
+            """.formatted(COUNTED);
+    // Events already reflected in the raw rows the rebuild reads must not be applied again
+    private static final String MARK_PENDING_APPLIED_SQL = """
+            INSERT INTO sales_rollup_events (event_id)
+            SELECT e.id FROM outbox_events e
+            WHERE e.status <> 'DONE' AND e.event_type IN ('%s', '%s', '%s')
+            """.formatted(OutboxService.ORDER_PLACED, OutboxService.ORDER_VOIDED, OutboxService.ORDER_REINSTATED);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesRollupService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds ({@code sign} 1) or removes ({@code sign} -1) one order's lines. Returns
+     * false if this event was applied before.
+     */
+    @Transactional
+    public boolean applyOrder(Long eventId, Long orderId, int sign) {
+        try {
+            jdbcTemplate.update(MARK_APPLIED_SQL, eventId);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        LocalDate[] day = new LocalDate[1];
+        Map<Long, Totals> byProduct = new LinkedHashMap<>();
+        Map<Long, Totals> byCategory = new LinkedHashMap<>();
+        Totals order = new Totals();
+        jdbcTemplate.query(LINES_SQL, rs -> {
+            day[0] = rs.getTimestamp("order_date").toLocalDateTime().toLocalDate();
+            int quantity = rs.getInt("quantity");
+            long revenue = Money.lineTotal(rs.getBigDecimal("unit_price"), quantity);
+            byProduct.computeIfAbsent(rs.getLong("product_id"), id -> new Totals()).add(revenue, quantity);
+            byCategory.computeIfAbsent(rs.getLong("category_id"), id -> new Totals()).add(revenue, quantity);
+            order.add(revenue, quantity);
+        }, orderId);
+        if (day[0] == null) {
+            return true;
+        }
+
+        Date sqlDay = Date.valueOf(day[0]);
+        jdbcTemplate.update(DAILY_SQL, sqlDay, Money.toBigDecimal(Money.times(order.revenueCents, sign)),
+                (long) sign * order.units, sign);
+        jdbcTemplate.batchUpdate(PRODUCT_SQL, rows(sqlDay, byProduct, sign));
+        jdbcTemplate.batchUpdate(CATEGORY_SQL, rows(sqlDay, byCategory, sign));
+        return true;
+    }
+
+    /**
+     * Recomputes every rollup from orders and order items. Runs as one repeatable-read
+     * transaction so the raw rows and the outbox are read from the same snapshot; rollup
+     * events still waiting in the outbox are already reflected in those rows, so they
+     * are marked applied rather than counted twice.
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        jdbcTemplate.update("DELETE FROM sales_daily_product");
+        jdbcTemplate.update("DELETE FROM sales_daily_category");
+        jdbcTemplate.update("DELETE FROM sales_rollup_events");
+        int days = jdbcTemplate.update(REBUILD_DAILY_SQL);
+        int productRows = jdbcTemplate.update(REBUILD_PRODUCT_SQL);
+        int categoryRows = jdbcTemplate.update(REBUILD_CATEGORY_SQL);
+        jdbcTemplate.update(MARK_PENDING_APPLIED_SQL);
+        log.info("Rebuilt sales rollups: {} days, {} day-product rows, {} day-category rows in {} ms",
+                days, productRows, categoryRows, System.currentTimeMillis() - started);
+    }
+
+    private static List<Object[]> rows(Date day, Map<Long, Totals> totals, int sign) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((id, t) -> rows.add(new Object[]{day, id,
+                Money.toBigDecimal(Money.times(t.revenueCents, sign)),
+                (long) sign * t.units, sign}));
+        return rows;
+    }
+
+    private static final class Totals {
+        long revenueCents;
+        long units;
+
+        void add(long lineRevenueCents, int quantity) {
+            revenueCents = Money.add(revenueCents, lineRevenueCents);
+            units += quantity;
+        }
+    }
+}
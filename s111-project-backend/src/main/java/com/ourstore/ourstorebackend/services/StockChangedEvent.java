@@ -0,0 +1,10 @@
+package com.ourstore.ourstorebackend.services;
+
+import java.util.Set;
+
+/**
+ * Published when stock is reserved or released with bulk updates, which bypass the
+ * entity and therefore the usual {@link ProductChangedEvent}.
+ */
+public record StockChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,378 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over product and category names for typeahead. Every node caches the
+ * top-K entries of its subtree, so a lookup is a walk of at most {@link #MAX_DEPTH}
+ * nodes followed by returning a precomputed array. Names are indexed from every word
+ * start, so "gal" finds "Samsung Galaxy S24".
+ */
+@Component
+public class SuggestionTrie implements ProductIndex {
+
+    static final int TOP_K = 8;
+    static final int MAX_DEPTH = 20;
+    private static final int MAX_WORD_STARTS = 4;
+    // Categories are few and navigational; keep them near the top of their prefixes
+    private static final double CATEGORY_WEIGHT = 25.0;
+
+    public record Suggestion(String type, Long id, String label) {
+    }
+
+    private record Entry(String key, Suggestion suggestion, double weight) {
+    }
+
+    private static final Comparator<Entry> RANK = Comparator.comparingDouble(Entry::weight).reversed()
+            .thenComparing(e -> e.suggestion().label());
+
+    private final CategoryRepository categoryRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Trie trie = new Trie();
+
+    public SuggestionTrie(CategoryRepository categoryRepository) {
+        this.categoryRepository = categoryRepository;
+    }
+
+    public List<Suggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.isEmpty()) {
+            return List.of();
+        }
+        String walked = prefix.length() > MAX_DEPTH ? prefix.substring(0, MAX_DEPTH) : prefix;
+        lock.readLock().lock();
+        try {
+            Node node = trie.root.find(walked);
+            if (node == null) {
+                return List.of();
+            }
+            List<Suggestion> result = new ArrayList<>(Math.min(limit, node.top.length));
+            for (Entry entry : node.top) {
+                if (result.size() >= limit) {
+                    break;
+                }
+                // Past the trie depth the cached list is only a candidate set
+                if (walked.length() == prefix.length() || normalize(entry.suggestion().label()).contains(prefix)) {
+                    result.add(entry.suggestion());
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return trie.nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void upsert(Product product) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(productKey(product.getId()));
+            if (Boolean.TRUE.equals(product.getActive())) {
+                trie.add(productEntry(product));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(productKey(productId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Rebuild startRebuild() {
+        Trie next = new Trie();
+        for (Category category : categoryRepository.findAll()) {
+            if (!Boolean.FALSE.equals(category.getActive())) {
+                next.add(new Entry("c:" + category.getId(),
+                        new Suggestion("category", category.getId(), category.getName()), CATEGORY_WEIGHT));
+            }
+        }
+        return new Rebuild() {
+            @Override
+            public void add(Product product) {
+                if (Boolean.TRUE.equals(product.getActive())) {
+                    next.add(productEntry(product));
+                }
+            }
+
+            @Override
+            public void commit() {
+                lock.writeLock().lock();
+                try {
+                    trie = next;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        };
+    }
+
+    private static String productKey(Long productId) {
+        return "p:" + productId;
+    }
+
+    // Well-reviewed products first: rating scaled by how many reviews back it up
+    private static Entry productEntry(Product product) {
+        double rating = product.getAverageRating() == null ? 0 : product.getAverageRating();
+        int reviews = product.getReviewCount() == null ? 0 : product.getReviewCount();
+        return new Entry(productKey(product.getId()),
+                new Suggestion("product", product.getId(), product.getName()),
+                rating * Math.log(2 + reviews));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    private static List<String> keysFor(String name) {
+        String normalized = normalize(name);
+        Set<String> keys = new LinkedHashSet<>();
+        int start = 0;
+        while (start >= 0 && keys.size() < MAX_WORD_STARTS) {
+            String key = normalized.substring(start);
+            keys.add(key.length() > MAX_DEPTH ? key.substring(0, MAX_DEPTH) : key);
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static final class Trie {
+        final Node root = new Node();
+        // Only the entry is kept; its keys are derived from the label again on removal,
+        // which is far smaller than holding up to MAX_WORD_STARTS substrings per name
+        final Map<String, Entry> entries = new HashMap<>();
+        int nodeCount = 1;
+
+        void add(Entry entry) {
+            List<String> keys = indexKeys(entry);
+            if (keys.isEmpty()) {
+                return;
+            }
+            entries.put(entry.key(), entry);
+            for (String key : keys) {
+                Node[] path = new Node[key.length() + 1];
+                Node node = root;
+                path[0] = node;
+                for (int i = 0; i < key.length(); i++) {
+                    Node child = node.child(key.charAt(i));
+                    if (child == null) {
+                        child = node.addChild(key.charAt(i));
+                        nodeCount++;
+                    }
+                    node = child;
+                    path[i + 1] = node;
+                }
+                node.addTerminal(entry);
+                // An add can only push the new entry into the lists along its path, so
+                // merge it in rather than recomputing from every terminal below
+                for (Node onPath : path) {
+                    offer(onPath, entry);
+                }
+            }
+        }
+
+        void remove(String entryKey) {
+            Entry entry = entries.remove(entryKey);
+            if (entry == null) {
+                return;
+            }
+            for (String key : indexKeys(entry)) {
+                Node[] path = new Node[key.length() + 1];
+                Node node = root;
+                path[0] = node;
+                for (int i = 0; i < key.length() && node != null; i++) {
+                    node = node.child(key.charAt(i));
+                    path[i + 1] = node;
+                }
+                if (node == null) {
+                    continue;
+                }
+                node.removeTerminal(entryKey);
+                // Prune now-empty leaves bottom-up before refreshing the cached top lists
+                for (int i = key.length(); i > 0; i--) {
+                    Node current = path[i];
+                    if (current.terminals.length == 0 && current.keys.length == 0) {
+                        path[i - 1].removeChild(key.charAt(i - 1));
+                        nodeCount--;
+                        path[i] = null;
+                    } else {
+                        break;
+                    }
+                }
+                refresh(path);
+            }
+        }
+
+        private static List<String> indexKeys(Entry entry) {
+            List<String> keys = keysFor(entry.suggestion().label());
+            keys.removeIf(String::isEmpty);
+            return keys;
+        }
+
+        private static void offer(Node node, Entry entry) {
+            Entry[] top = node.top;
+            int at = top.length;
+            for (int i = 0; i < top.length; i++) {
+                if (top[i].key().equals(entry.key())) {
+                    return;
+                }
+                if (at == top.length && RANK.compare(entry, top[i]) < 0) {
+                    at = i;
+                }
+            }
+            if (at == TOP_K) {
+                return;
+            }
+            Entry[] merged = new Entry[Math.min(top.length + 1, TOP_K)];
+            System.arraycopy(top, 0, merged, 0, at);
+            merged[at] = entry;
+            System.arraycopy(top, at, merged, at + 1, merged.length - at - 1);
+            node.top = merged;
+        }
+
+        // Recomputes each node's top-K from its own terminals and its children's top-K,
+        // deepest node first, which is exact because a subtree's top-K can only come
+        // from its children's top-K.
+        private static void refresh(Node[] path) {
+            for (int i = path.length - 1; i >= 0; i--) {
+                Node node = path[i];
+                if (node == null) {
+                    continue;
+                }
+                List<Entry> candidates = new ArrayList<>(Arrays.asList(node.terminals));
+                for (Node child : node.children) {
+                    candidates.addAll(Arrays.asList(child.top));
+                }
+                candidates.sort(RANK);
+                Set<String> seen = new HashSet<>();
+                List<Entry> top = new ArrayList<>(TOP_K);
+                for (Entry candidate : candidates) {
+                    if (top.size() == TOP_K) {
+                        break;
+                    }
+                    if (seen.add(candidate.key())) {
+                        top.add(candidate);
+                    }
+                }
+                node.top = top.toArray(NO_ENTRIES);
+            }
+        }
+    }
+
+    private static final char[] NO_KEYS = {};
+    private static final Node[] NO_CHILDREN = {};
+    private static final Entry[] NO_ENTRIES = {};
+
+    // Children live in parallel sorted arrays instead of a HashMap per node, which keeps
+    // the footprint close to one object plus two small arrays per node. Most nodes are
+    // interior nodes with no terminals, or leaves, so empty arrays are shared rather
+    // than allocated per node.
+    private static final class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        Entry[] terminals = NO_ENTRIES;
+        Entry[] top = NO_ENTRIES;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node addChild(char c) {
+            int i = -(Arrays.binarySearch(keys, c) + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            newKeys[i] = c;
+            newChildren[i] = new Node();
+            System.arraycopy(keys, i, newKeys, i + 1, keys.length - i);
+            System.arraycopy(children, i, newChildren, i + 1, children.length - i);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[i];
+        }
+
+        void addTerminal(Entry entry) {
+            terminals = Arrays.copyOf(terminals, terminals.length + 1);
+            terminals[terminals.length - 1] = entry;
+        }
+
+        void removeTerminal(String entryKey) {
+            for (int i = 0; i < terminals.length; i++) {
+                if (terminals[i].key().equals(entryKey)) {
+                    Entry[] remaining = terminals.length == 1 ? NO_ENTRIES : new Entry[terminals.length - 1];
+                    System.arraycopy(terminals, 0, remaining, 0, i);
+                    System.arraycopy(terminals, i + 1, remaining, i, terminals.length - i - 1);
+                    terminals = remaining;
+                    return;
+                }
+            }
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+
+        Node find(String prefix) {
+            Node node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.child(prefix.charAt(i));
+            }
+            return node;
+        }
+    }
+}
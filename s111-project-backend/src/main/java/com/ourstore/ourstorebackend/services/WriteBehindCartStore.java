@@ -0,0 +1,669 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.dto.ProductDetail;
+import com.ourstore.ourstorebackend.entities.ShoppingCart;
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.ShoppingCartRepository;
+import com.ourstore.ourstorebackend.repositories.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Keeps active carts in memory so that cart calls do not touch the database once a
+ * cart is loaded. Each change is appended to a {@link CartJournal} before it is
+ * applied; a scheduled flush writes every changed cart in batches and then drops the
+ * journal segments it covered, so several changes to one cart cost one write. A cart
+ * that cannot be written is carried into the current segment instead, so it neither
+ * holds back the other carts nor keeps old segments alive. Carts are evicted only once
+ * flushed, and journal segments left by a crash are replayed at startup.
+ * <p>
+ * Carts live on the instance that loaded them, so this store is only correct on a
+ * single instance or behind routing that keeps each user on one instance.
+ */
+@Service
+@ConditionalOnProperty(name = "ourstore.cart.write-behind.enabled", havingValue = "true")
+public class WriteBehindCartStore implements CartStore, InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+    private static final int STRIPES = 256;
+    private static final int FLUSH_CHUNK_SIZE = 200;
+
+    private static final String LOAD_CART_SQL = "SELECT id, last_updated FROM shopping_carts WHERE user_id = ?";
+    private static final String LOAD_ITEMS_SQL =
+            "SELECT id, product_id, quantity, unit_price FROM cart_items WHERE shopping_cart_id = ? ORDER BY id";
+    // Skips a cart that checkout or a newer flush has written since the snapshot was taken
+    private static final String UPDATE_CART_SQL = "UPDATE shopping_carts SET total_items = ?, total_price = ?, "
+            + "last_updated = ?, version = version + 1 WHERE id = ? AND (last_updated IS NULL OR last_updated <= ?)";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE shopping_cart_id = ?";
+    private static final String INSERT_ITEM_SQL =
+            "INSERT INTO cart_items (id, shopping_cart_id, product_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)";
+
+    private enum Op { SET, REMOVE, CLEAR }
+
+    // SET carries the line's new absolute quantity, so replaying a change twice is harmless
+    private record Change(Op op, long itemId, long productId, int quantity, BigDecimal unitPrice) {
+
+        static final Change CLEAR = new Change(Op.CLEAR, 0, 0, 0, BigDecimal.ZERO);
+
+        static Change remove(long itemId) {
+            return new Change(Op.REMOVE, itemId, 0, 0, BigDecimal.ZERO);
+        }
+    }
+
+    private record Line(long itemId, long productId, int quantity, BigDecimal unitPrice) {
+    }
+
+    private record Snapshot(Long userId, CartState state, long version, LocalDateTime lastUpdated, List<Line> lines) {
+
+        int totalItems() {
+            return lines.stream().mapToInt(Line::quantity).sum();
+        }
+
+        BigDecimal totalPrice() {
+            long totalCents = 0;
+            for (Line line : lines) {
+                totalCents = Money.add(totalCents, Money.lineTotal(line.unitPrice(), line.quantity()));
+            }
+            return Money.toBigDecimal(totalCents);
+        }
+    }
+
+    // Guarded by the user's stripe lock, apart from lastAccess
+    private static final class CartState {
+        final long cartId;
+        final Map<Long, Line> linesByProductId = new LinkedHashMap<>();
+        LocalDateTime lastUpdated;
+        long version;
+        long flushedVersion;
+        volatile long lastAccess = System.nanoTime();
+
+        CartState(long cartId, LocalDateTime lastUpdated) {
+            this.cartId = cartId;
+            this.lastUpdated = lastUpdated;
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        Snapshot snapshot(Long userId) {
+            return new Snapshot(userId, this, version, lastUpdated, List.copyOf(linesByProductId.values()));
+        }
+    }
+
+    private final ShoppingCartRepository shoppingCartRepository;
+    private final UserRepository userRepository;
+    private final CatalogService catalogService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CartJournal journal;
+    private final int maxCarts;
+    private final Duration idleTimeout;
+
+    private final Map<Long, CartState> carts = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    // Changes hold the read side from journal append to applying it, so that a
+    // rotation never seals a segment whose last change is not yet in memory
+    private final ReentrantReadWriteLock journalLock = new ReentrantReadWriteLock();
+
+    public WriteBehindCartStore(ShoppingCartRepository shoppingCartRepository, UserRepository userRepository,
+                                CatalogService catalogService, JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${ourstore.cart.write-behind.journal-dir:data/cart-journal}") Path journalDir,
+                                @Value("${ourstore.cart.write-behind.fsync:false}") boolean fsync,
+                                @Value("${ourstore.cart.write-behind.max-carts:100000}") int maxCarts,
+                                @Value("${ourstore.cart.write-behind.idle-timeout:30m}") Duration idleTimeout) {
+        this.shoppingCartRepository = shoppingCartRepository;
+        this.userRepository = userRepository;
+        this.catalogService = catalogService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new CartJournal(journalDir, fsync);
+        this.maxCarts = maxCarts;
+        this.idleTimeout = idleTimeout;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Optional<LocalDateTime> lastUpdated(Long userId) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            CartState state = carts.get(userId);
+            if (state != null) {
+                return Optional.ofNullable(state.lastUpdated);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return shoppingCartRepository.findLastUpdatedByUserId(userId);
+    }
+
+    // From the same cached details the view takes product names and prices from
+    @Override
+    public Optional<LocalDateTime> productsLastUpdated(Long userId) {
+        List<Long> productIds;
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            CartState state = carts.get(userId);
+            productIds = state == null ? null : List.copyOf(state.linesByProductId.keySet());
+        } finally {
+            lock.unlock();
+        }
+        if (productIds == null) {
+            return shoppingCartRepository.findProductsLastUpdatedByUserId(userId);
+        }
+        return productIds.stream()
+                .map(this::productLastUpdated)
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder());
+    }
+
+    // A product deleted while still in a cart has no timestamp; the view shows it without details
+    private LocalDateTime productLastUpdated(long productId) {
+        try {
+            return catalogService.getProductDetail(productId).lastUpdated();
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public CartView get(Long userId) {
+        return toView(change(userId, state -> null));
+    }
+
+    @Override
+    public CartView addItem(Long userId, Long productId, int quantity) {
+        // Cached, so only the first add of a product after a catalog change reads it
+        ProductDetail product = catalogService.getProductDetail(productId);
+        return toView(change(userId, state -> {
+            Line line = state.linesByProductId.get(productId);
+            return line == null
+                    ? new Change(Op.SET, SnowflakeIds.next(), productId, quantity, product.price())
+                    : new Change(Op.SET, line.itemId(), productId, line.quantity() + quantity, line.unitPrice());
+        }));
+    }
+
+    // All prices are resolved before the lock is taken; the batch reaches the database
+    // with the next flush like any other change
+    @Override
+    public CartView apply(Long userId, List<CartBatchRequest.Operation> operations) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        for (CartBatchRequest.Operation op : operations) {
+            if (op.type() != CartBatchRequest.Type.REMOVE && !prices.containsKey(op.productId())) {
+                try {
+                    prices.put(op.productId(), catalogService.getProductDetail(op.productId()).price());
+                } catch (NoSuchElementException e) {
+                    throw new IllegalArgumentException("Unknown product " + op.productId());
+                }
+            }
+        }
+        List<Function<CartState, Change>> steps = operations.stream()
+                .map(op -> (Function<CartState, Change>) state -> step(state, op, prices.get(op.productId())))
+                .toList();
+        return toView(change(userId, steps));
+    }
+
+    @Override
+    public Optional<CartView> removeItem(Long userId, Long itemId) {
+        return Optional.of(toView(change(userId, state -> state.linesByProductId.values().stream()
+                .anyMatch(line -> line.itemId() == itemId) ? Change.remove(itemId) : null)));
+    }
+
+    @Override
+    public void clear(Long userId) {
+        change(userId, state -> state.linesByProductId.isEmpty() ? null : Change.CLEAR);
+    }
+
+    /**
+     * Writes the user's cart within the checkout transaction and keeps the user's
+     * stripe locked until it completes. After a commit the cart is dropped from memory
+     * and reloaded, now empty, on next use.
+     */
+    @Override
+    public void beforeCheckout(Long userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Checkout must run in a transaction");
+        }
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        carts.remove(userId);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+        CartState state = carts.get(userId);
+        if (state != null && state.isDirty()) {
+            write(List.of(state.snapshot(userId)));
+        }
+    }
+
+    /**
+     * Seals the journal, writes every changed cart and deletes the sealed segments.
+     * Then evicts idle carts and, past the bound, the least recently used ones.
+     */
+    @Scheduled(fixedDelayString = "${ourstore.cart.write-behind.flush-interval:1s}")
+    public synchronized void flush() {
+        List<Path> sealed;
+        journalLock.writeLock().lock();
+        try {
+            sealed = journal.rotate();
+        } finally {
+            journalLock.writeLock().unlock();
+        }
+        try {
+            flushAndTrim(sealed);
+        } catch (IOException e) {
+            log.warn("Deleting flushed cart journal segments failed; they will be replayed harmlessly", e);
+        }
+        evict();
+    }
+
+    // A deleted product can no longer be written to cart_items, so its lines go first
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!event.isDeleted()) {
+            return;
+        }
+        long productId = event.productId();
+        for (Long userId : carts.keySet()) {
+            ReentrantLock lock = stripe(userId);
+            lock.lock();
+            try {
+                CartState state = carts.get(userId);
+                Line line = state == null ? null : state.linesByProductId.get(productId);
+                if (line != null) {
+                    record(userId, state, Change.remove(line.itemId()));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Replays what a crash left in the journal before the first request arrives
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        List<Path> sealed = journal.rotate();
+        Map<Long, LocalDateTime> flushedAt = new HashMap<>();
+        int replayed = 0;
+        for (Path segment : sealed) {
+            for (String record : CartJournal.read(segment)) {
+                String[] fields = record.split("\t");
+                if (fields.length != 8) {
+                    // A torn last line from the crash
+                    log.warn("Skipping malformed cart journal record in {}", segment.getFileName());
+                    continue;
+                }
+                LocalDateTime at = LocalDateTime.parse(fields[0]);
+                Long userId = Long.valueOf(fields[2]);
+                long cartId = Long.parseLong(fields[3]);
+                CartState state = carts.get(userId);
+                if (state == null) {
+                    state = loadExisting(userId);
+                    if (state == null) {
+                        continue;
+                    }
+                    carts.put(userId, state);
+                    flushedAt.put(userId, state.lastUpdated);
+                }
+                LocalDateTime base = flushedAt.get(userId);
+                // Changes already flushed, or made before a checkout emptied the cart, are older
+                if (state.cartId != cartId || (base != null && !at.isAfter(base))) {
+                    continue;
+                }
+                apply(state, new Change(Op.valueOf(fields[1]), Long.parseLong(fields[4]), Long.parseLong(fields[5]),
+                        Integer.parseInt(fields[6]), new BigDecimal(fields[7])), at);
+                dirty.add(userId);
+                replayed++;
+            }
+        }
+        flushAndTrim(sealed);
+        if (replayed > 0) {
+            log.info("Replayed {} cart changes for {} carts from the journal", replayed, flushedAt.size());
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        flush();
+        journal.close();
+    }
+
+    private Snapshot change(Long userId, Function<CartState, Change> decide) {
+        return change(userId, List.of(decide));
+    }
+
+    // Each step is decided on the cart as the previous steps left it
+    private Snapshot change(Long userId, List<Function<CartState, Change>> steps) {
+        ReentrantLock lock = stripe(userId);
+        lock.lock();
+        try {
+            CartState state = activate(userId);
+            for (Function<CartState, Change> step : steps) {
+                Change change = step.apply(state);
+                if (change != null) {
+                    record(userId, state, change);
+                }
+            }
+            return state.snapshot(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds the user's stripe lock
+    private void record(Long userId, CartState state, Change change) {
+        journalLock.readLock().lock();
+        try {
+            LocalDateTime at = nextTimestamp(state);
+            journal.append(format(at, userId, state.cartId, change));
+            apply(state, change, at);
+            dirty.add(userId);
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    private static Change step(CartState state, CartBatchRequest.Operation op, BigDecimal price) {
+        Line line = state.linesByProductId.get(op.productId());
+        int current = line == null ? 0 : line.quantity();
+        int quantity = switch (op.type()) {
+            case ADD -> current + op.quantity();
+            case SET -> op.quantity();
+            case REMOVE -> 0;
+        };
+        if (quantity == 0) {
+            return line == null ? null : Change.remove(line.itemId());
+        }
+        return line == null
+                ? new Change(Op.SET, SnowflakeIds.next(), op.productId(), quantity, price)
+                : new Change(Op.SET, line.itemId(), op.productId(), quantity, line.unitPrice());
+    }
+
+    private static void apply(CartState state, Change change, LocalDateTime at) {
+        switch (change.op()) {
+            case SET -> state.linesByProductId.put(change.productId(),
+                    new Line(change.itemId(), change.productId(), change.quantity(), change.unitPrice()));
+            case REMOVE -> state.linesByProductId.values().removeIf(line -> line.itemId() == change.itemId());
+            case CLEAR -> state.linesByProductId.clear();
+        }
+        state.lastUpdated = at;
+        state.version++;
+    }
+
+    private static String format(LocalDateTime at, Long userId, long cartId, Change change) {
+        return String.join("\t", at.toString(), change.op().name(), userId.toString(), Long.toString(cartId),
+                Long.toString(change.itemId()), Long.toString(change.productId()),
+                Integer.toString(change.quantity()), change.unitPrice().toPlainString());
+    }
+
+    // Strictly increasing per cart, and at the precision the column keeps, so that
+    // replay can compare change times with the flushed last_updated
+    private static LocalDateTime nextTimestamp(CartState state) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (state.lastUpdated != null && !now.isAfter(state.lastUpdated)) {
+            return state.lastUpdated.plus(1, ChronoUnit.MICROS);
+        }
+        return now;
+    }
+
+    // Caller holds the user's stripe lock
+    private CartState activate(Long userId) {
+        CartState state = carts.get(userId);
+        if (state == null) {
+            state = loadExisting(userId);
+            if (state == null) {
+                User user = userRepository.findById(userId).orElseThrow();
+                ShoppingCart cart = new ShoppingCart();
+                cart.setUser(user);
+                cart = shoppingCartRepository.save(cart);
+                state = new CartState(cart.getId(), cart.getLastUpdated().truncatedTo(ChronoUnit.MICROS));
+            }
+            carts.put(userId, state);
+        }
+        state.lastAccess = System.nanoTime();
+        return state;
+    }
+
+    private CartState loadExisting(Long userId) {
+        List<CartState> found = jdbcTemplate.query(LOAD_CART_SQL, (rs, rowNum) -> {
+            Timestamp lastUpdated = rs.getTimestamp(2);
+            return new CartState(rs.getLong(1), lastUpdated == null ? null : lastUpdated.toLocalDateTime());
+        }, userId);
+        if (found.isEmpty()) {
+            return null;
+        }
+        CartState state = found.get(0);
+        jdbcTemplate.query(LOAD_ITEMS_SQL, rs -> {
+            Line line = new Line(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getBigDecimal(4));
+            state.linesByProductId.put(line.productId(), line);
+        }, state.cartId);
+        return state;
+    }
+
+    /**
+     * Writes every changed cart, then deletes the sealed segments. The changes of a
+     * cart that could not be written live on in those segments, so that cart's whole
+     * state is journalled again in the current segment first.
+     */
+    private void flushAndTrim(List<Path> sealed) throws IOException {
+        for (Long userId : flushDirty()) {
+            ReentrantLock lock = stripe(userId);
+            lock.lock();
+            try {
+                CartState state = carts.get(userId);
+                if (state != null && state.isDirty()) {
+                    rejournal(userId, state);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        journal.delete(sealed);
+    }
+
+    // The records carry the cart's own timestamp, so replay orders them like the
+    // changes they stand for. Caller holds the user's stripe lock.
+    private void rejournal(Long userId, CartState state) {
+        journalLock.readLock().lock();
+        try {
+            journal.append(format(state.lastUpdated, userId, state.cartId, Change.CLEAR));
+            for (Line line : state.linesByProductId.values()) {
+                journal.append(format(state.lastUpdated, userId, state.cartId,
+                        new Change(Op.SET, line.itemId(), line.productId(), line.quantity(), line.unitPrice())));
+            }
+        } finally {
+            journalLock.readLock().unlock();
+        }
+    }
+
+    // Returns the users whose carts could not be written
+    private List<Long> flushDirty() {
+        List<Long> userIds = new ArrayList<>(dirty);
+        List<Long> failed = new ArrayList<>();
+        for (int from = 0; from < userIds.size(); from += FLUSH_CHUNK_SIZE) {
+            List<Snapshot> snapshots = new ArrayList<>();
+            for (Long userId : userIds.subList(from, Math.min(from + FLUSH_CHUNK_SIZE, userIds.size()))) {
+                ReentrantLock lock = stripe(userId);
+                lock.lock();
+                try {
+                    dirty.remove(userId);
+                    CartState state = carts.get(userId);
+                    if (state != null && state.isDirty()) {
+                        snapshots.add(state.snapshot(userId));
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (snapshots.isEmpty()) {
+                continue;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(snapshots));
+                markFlushed(snapshots);
+                continue;
+            } catch (RuntimeException e) {
+                log.warn("Flushing {} carts together failed; writing them one at a time", snapshots.size(), e);
+            }
+            // One bad cart must not hold back the rest of its chunk
+            for (Snapshot snapshot : snapshots) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> write(List.of(snapshot)));
+                    markFlushed(List.of(snapshot));
+                } catch (RuntimeException e) {
+                    log.warn("Flushing the cart of user {} failed; it stays in memory and is retried",
+                            snapshot.userId(), e);
+                    dirty.add(snapshot.userId());
+                    failed.add(snapshot.userId());
+                }
+            }
+        }
+        return failed;
+    }
+
+    private void markFlushed(List<Snapshot> snapshots) {
+        for (Snapshot snapshot : snapshots) {
+            ReentrantLock lock = stripe(snapshot.userId());
+            lock.lock();
+            try {
+                CartState state = snapshot.state();
+                state.flushedVersion = Math.max(state.flushedVersion, snapshot.version());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // One batch each for the cart rows, the old lines and the new lines
+    private void write(List<Snapshot> snapshots) {
+        List<Object[]> cartArgs = new ArrayList<>(snapshots.size());
+        for (Snapshot snapshot : snapshots) {
+            Timestamp lastUpdated = Timestamp.valueOf(snapshot.lastUpdated());
+            cartArgs.add(new Object[]{snapshot.totalItems(), snapshot.totalPrice(), lastUpdated,
+                    snapshot.state().cartId, lastUpdated});
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_CART_SQL, cartArgs);
+        List<Object[]> deleteArgs = new ArrayList<>();
+        List<Object[]> insertArgs = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            Snapshot snapshot = snapshots.get(i);
+            long cartId = snapshot.state().cartId;
+            deleteArgs.add(new Object[]{cartId});
+            for (Line line : snapshot.lines()) {
+                insertArgs.add(new Object[]{line.itemId(), cartId, line.productId(), line.quantity(),
+                        line.unitPrice()});
+            }
+        }
+        if (!deleteArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_ITEMS_SQL, deleteArgs);
+        }
+        if (!insertArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, insertArgs);
+        }
+    }
+
+    private void evict() {
+        long idleBefore = System.nanoTime() - idleTimeout.toNanos();
+        List<Map.Entry<Long, CartState>> candidates = new ArrayList<>();
+        List<Map.Entry<Long, CartState>> active = new ArrayList<>();
+        for (Map.Entry<Long, CartState> entry : carts.entrySet()) {
+            (entry.getValue().lastAccess - idleBefore < 0 ? candidates : active).add(entry);
+        }
+        int excess = active.size() - maxCarts;
+        if (excess > 0) {
+            active.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            candidates.addAll(active.subList(0, excess));
+        }
+        for (Map.Entry<Long, CartState> candidate : candidates) {
+            ReentrantLock lock = stripe(candidate.getKey());
+            lock.lock();
+            try {
+                // A cart changed since the flush stays until the next one has written it
+                if (!candidate.getValue().isDirty()) {
+                    carts.remove(candidate.getKey(), candidate.getValue());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private CartView toView(Snapshot snapshot) {
+        List<CartView.Line> lines = snapshot.lines().stream()
+                .map(line -> new CartView.Line(line.itemId(), line.quantity(), line.unitPrice(),
+                        product(line.productId())))
+                .toList();
+        return new CartView(snapshot.state().cartId, snapshot.totalItems(), snapshot.totalPrice(),
+                snapshot.lastUpdated(), lines);
+    }
+
+    private CartView.Product product(long productId) {
+        try {
+            ProductDetail detail = catalogService.getProductDetail(productId);
+            return new CartView.Product(detail.id(), detail.name(), detail.description(), detail.price(),
+                    detail.imageUrl());
+        } catch (NoSuchElementException e) {
+            return null;
+        }
+    }
+
+    private ReentrantLock stripe(Long userId) {
+        // Spreads sequential user ids over the stripes
+        int hash = Long.hashCode(userId * 0x9E3779B97F4A7C15L);
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -1,10 +1,9 @@
 package com.example;
 
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
 import org.junit.jupiter.api.Test;
-import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
-class OurstoreBackendApplicationTests {
+class OurstoreBackendApplicationTests extends MySqlIntegrationTest {
 
 	@Test
 	void contextLoads() {
@@ -0,0 +1,126 @@
+package com.ourstore.ourstorebackend;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.repositories.UserRepository;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeAll;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Base for tests that need the real schema and InnoDB locking. Runs against a MySQL
+ * 8.0 container, or against an existing server when {@code ourstore.test.datasource.url}
+ * (with {@code .username} and {@code .password}) is set as a system property. Skipped
+ * when neither is available. Rows are never cleaned up, so fixtures get unique keys.
+ */
+@SpringBootTest(classes = OurstoreBackendApplication.class, properties = {
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.show-sql=false",
+        "ourstore.worker-id=0"
+})
+public abstract class MySqlIntegrationTest {
+
+    private static final String EXTERNAL_URL = System.getProperty("ourstore.test.datasource.url");
+
+    private static MySQLContainer<?> mysql;
+
+    @Autowired
+    private UserRepository fixtureUsers;
+
+    @Autowired
+    private ProductRepository fixtureProducts;
+
+    @BeforeAll
+    static void requireDatabase() {
+        Assumptions.assumeTrue(EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable(),
+                "Needs Docker or ourstore.test.datasource.url");
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username",
+                    () -> System.getProperty("ourstore.test.datasource.username", "root"));
+            registry.add("spring.datasource.password",
+                    () -> System.getProperty("ourstore.test.datasource.password", ""));
+            return;
+        }
+        MySQLContainer<?> container = container();
+        registry.add("spring.datasource.url", container::getJdbcUrl);
+        registry.add("spring.datasource.username", container::getUsername);
+        registry.add("spring.datasource.password", container::getPassword);
+    }
+
+    // One container for every test class, so the cached application context stays valid
+    private static synchronized MySQLContainer<?> container() {
+        if (mysql == null) {
+            mysql = new MySQLContainer<>("mysql:8.0")
+                    .withUrlParam("rewriteBatchedStatements", "true")
+                    .withUrlParam("useCursorFetch", "true");
+            mysql.start();
+        }
+        return mysql;
+    }
+
+    protected User createUser(String usernamePrefix) {
+        User user = new User();
+        user.setUsername(usernamePrefix + "-" + UUID.randomUUID());
+        user.setPassword("secret");
+        return fixtureUsers.save(user);
+    }
+
+    protected Product createProduct(String skuPrefix, String name, BigDecimal price, int stock) {
+        Product product = new Product();
+        product.setName(name);
+        product.setSku(skuPrefix + "-" + UUID.randomUUID());
+        product.setPrice(price);
+        product.setStockQuantity(stock);
+        product.setActive(true);
+        return fixtureProducts.save(product);
+    }
+
+    /**
+     * Runs every task on its own thread, released together, and returns their results in
+     * task order. A task that throws, or one still running after two minutes (a deadlock
+     * that outlasted the retries), fails the test here.
+     */
+    protected static <T> List<T> race(List<? extends Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> running = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                running.add(pool.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : running) {
+                results.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
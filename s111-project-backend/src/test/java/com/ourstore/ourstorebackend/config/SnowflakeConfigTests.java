@@ -0,0 +1,32 @@
+package com.ourstore.ourstorebackend.config;
+
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeConfigTests {
+
+    @Test
+    void usesTheConfiguredWorkerId() {
+        new SnowflakeConfig(" 7 ", new MockEnvironment());
+        assertThat(SnowflakeIds.workerId()).isEqualTo(7);
+    }
+
+    @Test
+    void refusesToStartWithoutAWorkerId() {
+        assertThatThrownBy(() -> new SnowflakeConfig("", new MockEnvironment()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ourstore.worker-id");
+    }
+
+    @Test
+    void devProfileFallsBackToZero() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("dev");
+        new SnowflakeConfig("", environment);
+        assertThat(SnowflakeIds.workerId()).isZero();
+    }
+}
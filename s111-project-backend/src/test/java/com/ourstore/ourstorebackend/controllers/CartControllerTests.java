@@ -0,0 +1,72 @@
+package com.ourstore.ourstorebackend.controllers;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import com.ourstore.ourstorebackend.services.CartStore;
+import com.ourstore.ourstorebackend.services.CatalogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartControllerTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private CartController cartController;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void editingAProductInTheCartChangesTheValidators() {
+        Long userId = createUser("etag").getId();
+        Long productId = createProduct("ETAG", "Before", BigDecimal.TEN, 5).getId();
+        cartStore.addItem(userId, productId, 1);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        getCart(userId, null, first);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        assertThat(getCart(userId, etag, new MockHttpServletResponse()).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        Product loaded = productRepository.findById(productId).orElseThrow();
+        loaded.setName("After");
+        catalogService.saveProduct(loaded);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<Map<String, Object>> changed = getCart(userId, etag, response);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+        List<?> items = (List<?>) changed.getBody().get("cartItems");
+        assertThat(items).hasSize(1);
+        assertThat(((Map<?, ?>) ((Map<?, ?>) items.get(0)).get("product")).get("name")).isEqualTo("After");
+    }
+
+    // The validators land on the servlet response, as they would for a real request
+    private ResponseEntity<Map<String, Object>> getCart(Long userId, String ifNoneMatch,
+                                                        MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/" + userId);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return cartController.getCart(userId, new ServletWebRequest(request, response));
+    }
+}
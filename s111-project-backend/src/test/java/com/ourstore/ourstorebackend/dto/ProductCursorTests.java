@@ -0,0 +1,57 @@
+package com.ourstore.ourstorebackend.dto;
+
+import com.ourstore.ourstorebackend.repositories.ProductSort;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTests {
+
+    @Test
+    void roundTripsEachSortKey() {
+        assertRoundTrip(new ProductCursor(ProductSort.PRICE, false, new BigDecimal("19.90"), 7));
+        assertRoundTrip(new ProductCursor(ProductSort.DATE_CREATED, true, LocalDateTime.of(2024, 3, 1, 12, 30, 5), 8));
+        assertRoundTrip(new ProductCursor(ProductSort.AVERAGE_RATING, true, 4.5, 9));
+        assertRoundTrip(new ProductCursor(ProductSort.NAME, false, "a:b", 10));
+        assertRoundTrip(new ProductCursor(ProductSort.NAME, false, "", 11));
+    }
+
+    @Test
+    void roundTripsNullKeys() {
+        assertRoundTrip(new ProductCursor(ProductSort.DATE_CREATED, false, null, 12));
+        assertRoundTrip(new ProductCursor(ProductSort.AVERAGE_RATING, true, null, 13));
+    }
+
+    @Test
+    void keepsNamesThatLookLikeTheNullMarker() {
+        assertRoundTrip(new ProductCursor(ProductSort.NAME, false, "-", 14));
+        assertRoundTrip(new ProductCursor(ProductSort.NAME, false, "null", 15));
+    }
+
+    @Test
+    void rejectsCursorForAnotherSort() {
+        String token = new ProductCursor(ProductSort.PRICE, false, BigDecimal.ONE, 1).encode();
+        assertThatThrownBy(() -> ProductCursor.decode(token, ProductSort.PRICE, true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ProductCursor.decode(token, ProductSort.NAME, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> ProductCursor.decode("not base64!", ProductSort.ID, false))
+                .isInstanceOf(IllegalArgumentException.class);
+        String unparsable = Base64.getUrlEncoder().encodeToString("PRICE:a:1:=abc".getBytes());
+        assertThatThrownBy(() -> ProductCursor.decode(unparsable, ProductSort.PRICE, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertRoundTrip(ProductCursor cursor) {
+        assertThat(ProductCursor.decode(cursor.encode(), cursor.sort(), cursor.descending())).isEqualTo(cursor);
+    }
+}
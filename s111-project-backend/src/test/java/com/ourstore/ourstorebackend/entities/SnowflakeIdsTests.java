@@ -0,0 +1,30 @@
+package com.ourstore.ourstorebackend.entities;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdsTests {
+
+    @Test
+    void idsIncreaseAndCarryTheWorkerId() {
+        SnowflakeIds.configure(21);
+        long previous = 0;
+        // More than one millisecond's worth of sequence, so the logical clock runs ahead too
+        for (int i = 0; i < 10_000; i++) {
+            long id = SnowflakeIds.next();
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >> 7) & 31).isEqualTo(21);
+            previous = id;
+        }
+        // Still exact as a JavaScript number
+        assertThat(previous).isLessThan(1L << 53);
+    }
+
+    @Test
+    void workerIdMustFitInFiveBits() {
+        assertThatThrownBy(() -> SnowflakeIds.configure(32)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SnowflakeIds.configure(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
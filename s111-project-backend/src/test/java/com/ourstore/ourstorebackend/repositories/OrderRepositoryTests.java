@@ -0,0 +1,59 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.OrderFilter;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderRepositoryTests extends MySqlIntegrationTest {
+
+    private static final int ORDERS = 7;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long userId;
+
+    @BeforeEach
+    void createOrders() {
+        User user = createUser("count");
+        userId = user.getId();
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setUser(user);
+            order.setStatus(i % 2 == 0 ? Order.OrderStatus.PENDING : Order.OrderStatus.SHIPPED);
+            order.setTotalPrice(BigDecimal.valueOf(10 + i));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    // Stops at cap + 1, so a result above the cap only says "more than cap"
+    @ParameterizedTest
+    @CsvSource({"100,7", "7,7", "6,7", "3,4", "0,1"})
+    void countsMatchesUpToOnePastTheCap(int cap, long expected) {
+        assertThat(orderRepository.countUpTo(filter(null), cap)).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"100,4", "2,3"})
+    void countsOnlyFilteredMatches(int cap, long expected) {
+        assertThat(orderRepository.countUpTo(filter(Order.OrderStatus.PENDING), cap)).isEqualTo(expected);
+    }
+
+    private OrderFilter filter(Order.OrderStatus status) {
+        return new OrderFilter(status, null, null, null, userId, null, null);
+    }
+}
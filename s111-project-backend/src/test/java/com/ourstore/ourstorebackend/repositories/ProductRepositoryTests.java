@@ -0,0 +1,76 @@
+package com.ourstore.ourstorebackend.repositories;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.ProductFilter;
+import com.ourstore.ourstorebackend.dto.ProductSummary;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductRepositoryTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private ProductFilter filter;
+
+    @BeforeEach
+    void createCatalog() {
+        Category category = new Category();
+        category.setName("cursor-" + UUID.randomUUID());
+        category = categoryRepository.save(category);
+        filter = new ProductFilter(category.getId(), null, null, null, null, null);
+
+        LocalDateTime day = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Double[] ratings = {null, 4.0, null, 2.5, 4.0, null, 5.0};
+        LocalDateTime[] created = {day, null, day.plusDays(1), null, day, day.plusDays(2), null};
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ratings.length; i++) {
+            Product product = new Product();
+            product.setName("Cursor product " + i);
+            product.setSku("CUR-" + UUID.randomUUID());
+            product.setPrice(BigDecimal.TEN);
+            product.setStockQuantity(1);
+            product.setCategory(category);
+            product.setAverageRating(ratings[i]);
+            product.setDateCreated(created[i]);
+            products.add(product);
+        }
+        productRepository.saveAll(products);
+    }
+
+    // Walking the pages must visit every row once, in the order of one unpaged query
+    @ParameterizedTest
+    @CsvSource({"averageRating,asc", "averageRating,desc", "dateCreated,asc", "dateCreated,desc"})
+    void pagesThroughNullSortKeys(String sort, String direction) {
+        List<Long> expected = productRepository.findPage(filter, sort, direction, null, 100).items().stream()
+                .map(ProductSummary::id)
+                .toList();
+        assertThat(expected).hasSize(7);
+
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<ProductSummary> page = productRepository.findPage(filter, sort, direction, cursor, 2);
+            page.items().forEach(p -> walked.add(p.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(walked).containsExactlyElementsOf(expected);
+    }
+}
@@ -0,0 +1,98 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.config.CacheConfig;
+import com.ourstore.ourstorebackend.dto.ProductDetail;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class CatalogServiceTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void readDuringAnOpenWriteDoesNotOutliveTheCommit() {
+        Long id = createProduct("CACHE", "Before", BigDecimal.TEN, 1).getId();
+        assertThat(catalogService.getProductDetail(id).name()).isEqualTo("Before");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Product loaded = productRepository.findById(id).orElseThrow();
+            loaded.setName("After");
+            catalogService.saveProduct(loaded);
+            productRepository.flush();
+            // Another request still reads the committed row and caches it
+            String seen = CompletableFuture.supplyAsync(() -> catalogService.getProductDetail(id).name()).join();
+            assertThat(seen).isEqualTo("Before");
+        });
+
+        assertThat(catalogService.getProductDetail(id).name()).isEqualTo("After");
+    }
+
+    @Test
+    void aReadThatFinishesAfterTheEvictionIsEvictedAgain() {
+        Long id = createProduct("CACHE", "Before", BigDecimal.TEN, 1).getId();
+        ProductDetail before = catalogService.getProductDetail(id);
+
+        Product loaded = productRepository.findById(id).orElseThrow();
+        loaded.setName("After");
+        catalogService.saveProduct(loaded);
+        // A read that loaded the old row before the commit caches it after the eviction
+        Cache details = cacheManager.getCache(CacheConfig.PRODUCT_DETAILS);
+        details.put(id, before);
+        assertThat(catalogService.getProductDetail(id).name()).isEqualTo("Before");
+
+        await().atMost(Duration.ofSeconds(10))
+                .untilAsserted(() -> assertThat(catalogService.getProductDetail(id).name()).isEqualTo("After"));
+    }
+
+    @Test
+    void updateRequiresTheVersionItWasReadAt() {
+        Long id = createProduct("CACHE", "Before", BigDecimal.TEN, 1).getId();
+        Long read = catalogService.getProductDetail(id).version();
+
+        Product withoutVersion = edit(id, "No version", null);
+        assertThatThrownBy(() -> catalogService.updateProduct(id, withoutVersion))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        catalogService.updateProduct(id, edit(id, "First", read));
+        Product stale = edit(id, "Second", read);
+        assertThatThrownBy(() -> catalogService.updateProduct(id, stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        ProductDetail detail = catalogService.getProductDetail(id);
+        assertThat(detail.name()).isEqualTo("First");
+        assertThat(detail.version()).isEqualTo(read + 1);
+    }
+
+    private Product edit(Long id, String name, Long version) {
+        Product edit = productRepository.findById(id).orElseThrow();
+        edit.setName(name);
+        edit.setVersion(version);
+        return edit;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class CheckoutServiceTests extends MySqlIntegrationTest {
+
+    private static final int BUYERS = 200;
+    private static final int STOCK = 50;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<ReservationExpiryJob> reservationExpiryJob;
+
+    @Test
+    void placingAnOrderSnapshotsTheCartIntoTheOrderAndEmptiesIt() throws Exception {
+        Category category = new Category();
+        category.setName("checkout-" + UUID.randomUUID());
+        category = categoryRepository.save(category);
+        Product lamp = createProduct("SNAP", "Desk lamp", new BigDecimal("19.99"), 10);
+        lamp.setImageUrl("https://img.example/lamp.png");
+        lamp.setCategory(category);
+        lamp = productRepository.save(lamp);
+        Product bulb = createProduct("SNAP", "Bulb", new BigDecimal("0.10"), 10);
+        Long userId = createUser("buyer").getId();
+        cartStore.addItem(userId, lamp.getId(), 3);
+        cartStore.addItem(userId, bulb.getId(), 2);
+
+        Order order = checkoutService.placeOrder(userId).orElseThrow();
+        // Later catalog edits must not reach the order
+        Product renamed = productRepository.findById(lamp.getId()).orElseThrow();
+        renamed.setName("Renamed lamp");
+        productRepository.save(renamed);
+
+        assertThat(jdbcTemplate.queryForMap("SELECT status, total_quantity, total_price FROM orders WHERE id = ?",
+                order.getId())).containsExactly(entry("status", "PENDING"), entry("total_quantity", 5),
+                entry("total_price", new BigDecimal("60.17")));
+        List<Map<String, Object>> items = jdbcTemplate.queryForList(
+                "SELECT product_id, product_name, product_sku, product_image_url, category_id, quantity, unit_price "
+                        + "FROM order_items WHERE order_id = ? ORDER BY quantity DESC", order.getId());
+        assertThat(items).hasSize(2);
+        assertThat(items.get(0)).containsExactly(entry("product_id", lamp.getId()),
+                entry("product_name", "Desk lamp"), entry("product_sku", lamp.getSku()),
+                entry("product_image_url", "https://img.example/lamp.png"), entry("category_id", category.getId()),
+                entry("quantity", 3), entry("unit_price", new BigDecimal("19.99")));
+        assertThat(items.get(1)).containsExactly(entry("product_id", bulb.getId()),
+                entry("product_name", "Bulb"), entry("product_sku", bulb.getSku()),
+                entry("product_image_url", null), entry("category_id", null),
+                entry("quantity", 2), entry("unit_price", new BigDecimal("0.10")));
+
+        List<Map<String, Object>> events = jdbcTemplate.queryForList(
+                "SELECT event_type, payload FROM outbox_events WHERE aggregate_id = ?", order.getId());
+        assertThat(events).singleElement()
+                .satisfies(event -> assertThat(event.get("event_type")).isEqualTo(OutboxService.ORDER_PLACED));
+        JsonNode payload = objectMapper.readTree((String) events.get(0).get("payload"));
+        assertThat(payload.get("orderId").asLong()).isEqualTo(order.getId());
+        assertThat(payload.get("userId").asLong()).isEqualTo(userId);
+        assertThat(payload.get("totalPrice").decimalValue()).isEqualByComparingTo("60.17");
+        assertThat(payload.get("items")).hasSize(2);
+
+        CartView cart = cartStore.get(userId);
+        assertThat(cart.items()).isEmpty();
+        assertThat(cart.totalItems()).isZero();
+        assertThat(cart.totalPrice()).isEqualByComparingTo("0");
+        assertThat(productRepository.findById(lamp.getId()).orElseThrow().getStockQuantity()).isEqualTo(7);
+        assertThat(productRepository.findById(bulb.getId()).orElseThrow().getStockQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    void reservationsDoNotExpireWithoutATtl() {
+        Long productId = createProduct("RACE", "Last units", new BigDecimal("9.99"), 5).getId();
+        Long userId = createUser("buyer").getId();
+        cartStore.addItem(userId, productId, 1);
+
+        Order order = checkoutService.placeOrder(userId).orElseThrow();
+
+        assertThat(order.isStockReserved()).isTrue();
+        assertThat(order.getReservedUntil()).isNull();
+        assertThat(reservationExpiryJob.getIfAvailable()).isNull();
+    }
+
+    @Test
+    void buyersRacingForTheLastUnitsNeverOversell() throws Exception {
+        Long productId = createProduct("RACE", "Last units", new BigDecimal("9.99"), STOCK).getId();
+        List<Callable<Boolean>> checkouts = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Long userId = createUser("buyer").getId();
+            cartStore.addItem(userId, productId, 1);
+            checkouts.add(() -> {
+                try {
+                    assertThat(checkoutService.placeOrder(userId)).isPresent();
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            });
+        }
+
+        List<Boolean> placed = race(checkouts);
+
+        assertThat(placed).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isZero();
+        Integer sold = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = ?", Integer.class, productId);
+        assertThat(sold).isEqualTo(STOCK);
+    }
+}
@@ -0,0 +1,68 @@
+package com.ourstore.ourstorebackend.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvRecordReaderTests {
+
+    @Test
+    void quotedFieldsKeepTheirCommas() throws IOException {
+        assertThat(records("a,\"b, c\",d\n,,\n")).containsExactly(
+                List.of("a", "b, c", "d"),
+                List.of("", "", ""));
+    }
+
+    @Test
+    void doubledQuotesInsideAQuotedFieldAreOneQuote() throws IOException {
+        assertThat(records("\"27\"\" monitor\",\"\"\"\"\n")).containsExactly(
+                List.of("27\" monitor", "\""));
+    }
+
+    @Test
+    void lineBreaksInsideQuotesStayInTheField() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"first\nsecond\",x\n\nnext,y"));
+
+        assertThat(reader.next()).containsExactly("first\nsecond", "x");
+        assertThat(reader.recordLine()).isEqualTo(1);
+        // The blank line is skipped, and line numbers count the break inside the quotes
+        assertThat(reader.next()).containsExactly("next", "y");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void crlfEndsARecordOutsideQuotesOnly() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\r\n\"c\r\nd\",e\r\n\r\nf,g\r\n"));
+
+        assertThat(reader.next()).containsExactly("a", "b");
+        assertThat(reader.next()).containsExactly("c\r\nd", "e");
+        assertThat(reader.recordLine()).isEqualTo(2);
+        assertThat(reader.next()).containsExactly("f", "g");
+        assertThat(reader.recordLine()).isEqualTo(5);
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuote() {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("a,\"b\n"));
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class);
+    }
+
+    private static List<List<String>> records(String csv) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(csv));
+        List<List<String>> records = new ArrayList<>();
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,134 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportServiceTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    // Orders from other tests share the table, so each run exports its own minute
+    private LocalDateTime minute;
+    private User user;
+    private Order withItems;
+    private Order withoutItems;
+    private OrderItem desk;
+    private OrderItem lamp;
+
+    @BeforeEach
+    void createOrders() {
+        minute = LocalDateTime.of(2001, 1, 1, 0, 0).plusMinutes(ThreadLocalRandom.current().nextInt(10_000_000));
+        user = createUser("export");
+        Product deskProduct = createProduct("EXP", "Desk", new BigDecimal("9.50"), 10);
+        Product lampProduct = createProduct("EXP", "Lamp", new BigDecimal("3.00"), 10);
+
+        withItems = new Order();
+        withItems.setUser(user);
+        withItems.setOrderTrackingNumber("TRK-1");
+        withItems.setStatus(Order.OrderStatus.SHIPPED);
+        withItems.setTotalPrice(new BigDecimal("15.50"));
+        withItems.setTotalQuantity(3);
+        withItems.setPaymentMethod("card");
+        withItems.setPaymentStatus("PAID");
+        withItems.setOrderDate(minute);
+        withItems.setLastUpdated(minute.plusSeconds(5));
+        // Saved one at a time so the desk line gets the lower id and is exported first
+        desk = item(withItems, deskProduct, "Desk, \"oak\"", 1);
+        withItems.getOrderItems().add(desk);
+        withItems = orderRepository.save(withItems);
+        lamp = item(withItems, lampProduct, "Lamp", 2);
+        withItems.getOrderItems().add(lamp);
+        withItems = orderRepository.save(withItems);
+        desk = line(deskProduct);
+        lamp = line(lampProduct);
+
+        withoutItems = new Order();
+        withoutItems.setUser(user);
+        withoutItems.setTotalPrice(BigDecimal.ZERO);
+        withoutItems.setOrderDate(minute.plusSeconds(30));
+        withoutItems.setLastUpdated(minute.plusSeconds(30));
+        withoutItems = orderRepository.save(withoutItems);
+    }
+
+    @Test
+    void csvRepeatsTheOrderOnEachItemLineAndWritesAnEmptyOrderAlone() throws IOException {
+        String order = "%d,TRK-1,%d,%s,SHIPPED,15.50,3,card,PAID,%s,%s".formatted(
+                withItems.getId(), user.getId(), user.getUsername(), minute, minute.plusSeconds(5));
+        String expected = "orderId,trackingNumber,userId,username,status,totalPrice,totalQuantity,paymentMethod,"
+                + "paymentStatus,orderDate,lastUpdated,itemId,productId,sku,productName,quantity,unitPrice\n"
+                + order + ",%d,%d,%s,\"Desk, \"\"oak\"\"\",1,9.50\n".formatted(
+                        desk.getId(), desk.getProduct().getId(), desk.getProductSku())
+                + order + ",%d,%d,%s,Lamp,2,3.00\n".formatted(
+                        lamp.getId(), lamp.getProduct().getId(), lamp.getProductSku())
+                + "%d,,%d,%s,PENDING,0.00,0,,,%s,%s,,,,,,\n".formatted(withoutItems.getId(), user.getId(),
+                user.getUsername(), minute.plusSeconds(30), minute.plusSeconds(30));
+
+        assertThat(export(ExportService.Format.CSV)).isEqualTo(expected);
+    }
+
+    @Test
+    void ndjsonNestsTheItemsUnderTheirOrder() throws IOException {
+        String deskJson = ("{\"itemId\":%d,\"productId\":%d,\"sku\":\"%s\",\"productName\":\"Desk, \\\"oak\\\"\","
+                + "\"quantity\":1,\"unitPrice\":9.50}")
+                .formatted(desk.getId(), desk.getProduct().getId(), desk.getProductSku());
+        String lampJson = ("{\"itemId\":%d,\"productId\":%d,\"sku\":\"%s\",\"productName\":\"Lamp\","
+                + "\"quantity\":2,\"unitPrice\":3.00}")
+                .formatted(lamp.getId(), lamp.getProduct().getId(), lamp.getProductSku());
+        String expected = ("{\"orderId\":%d,\"trackingNumber\":\"TRK-1\",\"userId\":%d,\"username\":\"%s\","
+                + "\"status\":\"SHIPPED\",\"totalPrice\":15.50,\"totalQuantity\":3,\"paymentMethod\":\"card\","
+                + "\"paymentStatus\":\"PAID\",\"orderDate\":\"%s\",\"lastUpdated\":\"%s\",\"items\":[%s,%s]}\n")
+                .formatted(withItems.getId(), user.getId(), user.getUsername(), minute, minute.plusSeconds(5),
+                        deskJson, lampJson)
+                + ("{\"orderId\":%d,\"trackingNumber\":null,\"userId\":%d,\"username\":\"%s\","
+                + "\"status\":\"PENDING\",\"totalPrice\":0.00,\"totalQuantity\":0,\"paymentMethod\":null,"
+                + "\"paymentStatus\":null,\"orderDate\":\"%s\",\"lastUpdated\":\"%s\",\"items\":[]}\n")
+                .formatted(withoutItems.getId(), user.getId(), user.getUsername(), minute.plusSeconds(30),
+                        minute.plusSeconds(30));
+
+        assertThat(export(ExportService.Format.NDJSON)).isEqualTo(expected);
+    }
+
+    private String export(ExportService.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportOrders(format, minute, minute.plusMinutes(1), null, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private OrderItem line(Product product) {
+        return withItems.getOrderItems().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static OrderItem item(Order order, Product product, String name, int quantity) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setProductName(name);
+        item.setProductSku(product.getSku());
+        return item;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.ProductStockShard;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlashSaleServiceTests extends MySqlIntegrationTest {
+
+    private static final int BUYERS = 200;
+    // Fewer units than buyers, so shards run dry and checkouts fall back to gathering
+    private static final int STOCK = 120;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16})
+    void concurrentCheckoutsOfAShardedProductSellEveryUnitOnce(int shards) throws Exception {
+        Long productId = createProduct("FLASH", "Flash sale", new BigDecimal("4.99"), STOCK).getId();
+        flashSaleService.enable(productId, shards);
+        List<Callable<Boolean>> checkouts = new ArrayList<>();
+        for (int i = 0; i < BUYERS; i++) {
+            Long userId = createUser("flash").getId();
+            cartStore.addItem(userId, productId, 1);
+            checkouts.add(() -> {
+                try {
+                    checkoutService.placeOrder(userId).orElseThrow();
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            });
+        }
+
+        assertThat(race(checkouts)).filteredOn(Boolean::booleanValue).hasSize(STOCK);
+        assertThat(flashSaleService.getShards(productId))
+                .hasSize(shards)
+                .allSatisfy(shard -> assertThat(shard.getQuantity()).isZero());
+        assertThat(flashSaleService.getShards(productId).stream().mapToInt(ProductStockShard::getQuantity).sum())
+                .isZero();
+    }
+}
@@ -0,0 +1,129 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.config.CacheConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTests extends MySqlIntegrationTest {
+
+    private static final String SCOPE = "POST /api/test";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void replaysTheFirstResponseWithoutRunningTheActionAgain() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+
+        ResponseEntity<Object> first = idempotencyService.execute(key, SCOPE, Map.of("q", 1),
+                () -> Map.of("run", runs.incrementAndGet()));
+        ResponseEntity<Object> cached = idempotencyService.execute(key, SCOPE, Map.of("q", 1),
+                () -> Map.of("run", runs.incrementAndGet()));
+        // A replay from another instance finds the response in the table, not the cache
+        cacheManager.getCache(CacheConfig.IDEMPOTENCY_RESPONSES).clear();
+        ResponseEntity<Object> stored = idempotencyService.execute(key, SCOPE, Map.of("q", 1),
+                () -> Map.of("run", runs.incrementAndGet()));
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(first.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        for (ResponseEntity<Object> replay : List.of(cached, stored)) {
+            assertThat(replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+            assertThat(replay.getBody()).hasToString("{\"run\":1}");
+        }
+    }
+
+    @Test
+    void rejectsTheKeyWithADifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        idempotencyService.execute(key, SCOPE, Map.of("q", 1), () -> "done");
+
+        assertThatThrownBy(() -> idempotencyService.execute(key, SCOPE, Map.of("q", 2), () -> "done"))
+                .isInstanceOfSatisfying(IdempotencyConflictException.class,
+                        e -> assertThat(e.isInProgress()).isFalse());
+    }
+
+    @Test
+    void keysAreScoped() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute(key, SCOPE, null, runs::incrementAndGet);
+        idempotencyService.execute(key, SCOPE + "/other", null, runs::incrementAndGet);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void aFailedActionFreesTheKeyForARetry() {
+        String key = UUID.randomUUID().toString();
+        assertThatThrownBy(() -> idempotencyService.execute(key, SCOPE, null, () -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        ResponseEntity<Object> retry = idempotencyService.execute(key, SCOPE, null, () -> "second");
+
+        assertThat(retry.getBody()).isEqualTo("second");
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+    }
+
+    @Test
+    void aWriteThatLosesARaceIsRetriedUnderTheSameKey() {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger attempts = new AtomicInteger();
+
+        ResponseEntity<Object> response = idempotencyService.execute(key, SCOPE, null, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "retried";
+        });
+        ResponseEntity<Object> replay = idempotencyService.execute(key, SCOPE, null, () -> "again");
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(response.getBody()).isEqualTo("retried");
+        assertThat(replay.getBody()).hasToString("\"retried\"");
+    }
+
+    @Test
+    void concurrentRequestsWithOneKeyRunTheActionOnce() throws Exception {
+        int clients = 16;
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        List<Callable<Boolean>> requests = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            requests.add(() -> {
+                try {
+                    idempotencyService.execute(key, SCOPE, null, () -> {
+                        runs.incrementAndGet();
+                        return "once";
+                    });
+                    return false;
+                } catch (IdempotencyConflictException e) {
+                    assertThat(e.isInProgress()).isTrue();
+                    return true;
+                }
+            });
+        }
+        List<Boolean> inProgress = race(requests);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(inProgress).contains(false);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.CartBatchRequest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.repositories.ShoppingCartRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JpaCartStoreTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void repeatedAddsOfAProductShareOneLine() {
+        Long userId = createUser("cart").getId();
+        Long productId = createProduct("LINE", "Cart line", new BigDecimal("3.00"), 10).getId();
+
+        cartStore.addItem(userId, productId, 1);
+        CartView cart = cartStore.addItem(userId, productId, 2);
+
+        assertThat(cart.items()).singleElement().satisfies(line -> assertThat(line.quantity()).isEqualTo(3));
+        assertThat(cart.totalItems()).isEqualTo(3);
+        assertThat(cart.totalPrice()).isEqualByComparingTo("9.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cart_items WHERE shopping_cart_id = ?",
+                Integer.class, cart.id())).isEqualTo(1);
+    }
+
+    @Test
+    void removeRetriesWhenTheLineGrowsAfterItWasRead() throws Exception {
+        Long userId = createUser("cart").getId();
+        Long productId = createProduct("LINE", "Cart line", new BigDecimal("3.00"), 10).getId();
+        CartView before = cartStore.addItem(userId, productId, 2);
+        Long itemId = before.items().get(0).id();
+
+        CompletableFuture<Optional<CartView>> removal = new TransactionTemplate(transactionManager).execute(status -> {
+            // The remove reads the line at two units and then waits on this add's row
+            // locks; the totals update must see the newer cart version and retry
+            cartStore.addItem(userId, productId, 3);
+            CompletableFuture<Optional<CartView>> pending = CompletableFuture.supplyAsync(
+                    () -> cartStore.removeItem(userId, itemId));
+            sleep(1000);
+            return pending;
+        });
+
+        CartView cart = removal.get(1, TimeUnit.MINUTES).orElseThrow();
+        assertThat(cart.items()).isEmpty();
+        assertThat(cart.totalItems()).isZero();
+        assertThat(cart.totalPrice()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void totalsAreOnlyMovedAtTheCartVersionTheLineWasReadAt() {
+        Long userId = createUser("cart").getId();
+        Long productId = createProduct("LINE", "Cart line", new BigDecimal("3.00"), 10).getId();
+        Long cartId = cartStore.addItem(userId, productId, 2).id();
+        Long version = shoppingCartRepository.findVersionById(cartId).orElseThrow();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Integer stale = transaction.execute(status -> shoppingCartRepository.removeFromTotals(cartId, version - 1, 2,
+                new BigDecimal("6.00"), LocalDateTime.now()));
+        assertThat(stale).isZero();
+        assertThat(cartStore.get(userId).totalItems()).isEqualTo(2);
+        Integer current = transaction.execute(status -> shoppingCartRepository.removeFromTotals(cartId, version, 2,
+                new BigDecimal("6.00"), LocalDateTime.now()));
+        assertThat(current).isEqualTo(1);
+        assertThat(cartStore.get(userId).totalItems()).isZero();
+    }
+
+    @Test
+    void firstAddsRacingToCreateTheCartShareOne() throws Exception {
+        Long userId = createUser("cart").getId();
+        Long productId = createProduct("LINE", "Cart line", new BigDecimal("3.00"), 10).getId();
+        List<Callable<CartView>> adds = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            adds.add(() -> cartStore.addItem(userId, productId, 1));
+        }
+
+        race(adds);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM shopping_carts WHERE user_id = ?",
+                Integer.class, userId)).isEqualTo(1);
+        CartView cart = cartStore.get(userId);
+        assertThat(cart.items()).singleElement().satisfies(line -> assertThat(line.quantity()).isEqualTo(8));
+        assertThat(cart.totalItems()).isEqualTo(8);
+    }
+
+    @Test
+    void batchRetriesWhenASingleAddInsertsTheSameLineFirst() throws Exception {
+        assertThat(cartStore).isInstanceOf(JpaCartStore.class);
+        Long userId = createUser("cart").getId();
+        Long productId = createProduct("LINE", "Cart line", new BigDecimal("3.00"), 10).getId();
+        cartStore.get(userId);
+
+        CompletableFuture<CartView> batch = new TransactionTemplate(transactionManager).execute(status -> {
+            // The add's line is inserted but not committed, so the batch's insert of the
+            // same line waits on it and then fails on the unique key
+            cartStore.addItem(userId, productId, 1);
+            CompletableFuture<CartView> pending = CompletableFuture.supplyAsync(() -> cartStore.apply(userId,
+                    List.of(new CartBatchRequest.Operation(CartBatchRequest.Type.ADD, productId, 2))));
+            sleep(1000);
+            return pending;
+        });
+
+        CartView cart = batch.get(1, TimeUnit.MINUTES);
+        assertThat(cart.items()).singleElement().satisfies(line -> assertThat(line.quantity()).isEqualTo(3));
+        assertThat(cart.totalItems()).isEqualTo(3);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
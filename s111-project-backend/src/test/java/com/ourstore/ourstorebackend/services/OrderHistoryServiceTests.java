@@ -0,0 +1,126 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.AdminOrderDetail;
+import com.ourstore.ourstorebackend.dto.CursorPage;
+import com.ourstore.ourstorebackend.dto.OrderSummary;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderHistoryServiceTests extends MySqlIntegrationTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void pagesThroughEveryOrderNewestFirstWithoutGapsOrRepeats() {
+        User user = createUser("history");
+        Product product = createProduct("HIST", "History item", new BigDecimal("4.50"), 10);
+        List<Order> orders = new ArrayList<>();
+        // Three orders share a timestamp, so pages must break ties on the id
+        for (LocalDateTime date : List.of(NOON.minusDays(2), NOON, NOON, NOON, NOON.minusDays(1), NOON.plusDays(1))) {
+            orders.add(order(user, product, date));
+        }
+        order(createUser("history"), product, NOON);
+        List<Long> expected = orders.stream()
+                .sorted(Comparator.comparing(Order::getOrderDate).thenComparing(Order::getId).reversed())
+                .map(Order::getId)
+                .toList();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPage<OrderSummary> page = orderHistoryService.getOrderHistory(user.getId(), cursor, 2);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            for (OrderSummary summary : page.items()) {
+                seen.add(summary.id());
+                assertThat(summary.items()).singleElement().satisfies(line -> {
+                    assertThat(line.productId()).isEqualTo(product.getId());
+                    assertThat(line.productName()).isEqualTo("Name at checkout");
+                });
+            }
+            assertThat(page.hasNext()).isEqualTo(page.nextCursor() != null);
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void adminDetailCarriesTheBuyerAndTheCheckoutSnapshot() {
+        User user = createUser("history");
+        Product product = createProduct("HIST", "History item", new BigDecimal("4.50"), 10);
+        Order order = order(user, product, NOON);
+
+        AdminOrderDetail detail = orderHistoryService.getAdminOrderDetail(order.getId());
+
+        assertThat(detail.id()).isEqualTo(order.getId());
+        assertThat(detail.userId()).isEqualTo(user.getId());
+        assertThat(detail.username()).isEqualTo(user.getUsername());
+        assertThat(detail.status()).isEqualTo(Order.OrderStatus.PENDING);
+        assertThat(detail.totalPrice()).isEqualByComparingTo("4.50");
+        assertThat(detail.orderDate()).isEqualTo(NOON);
+        assertThat(detail.items()).singleElement().satisfies(line -> {
+            assertThat(line.productId()).isEqualTo(product.getId());
+            assertThat(line.productName()).isEqualTo("Name at checkout");
+            assertThat(line.sku()).isEqualTo(product.getSku());
+            assertThat(line.quantity()).isEqualTo(1);
+            assertThat(line.unitPrice()).isEqualByComparingTo("4.50");
+        });
+    }
+
+    @Test
+    void emptyHistoryHasNoCursor() {
+        CursorPage<OrderSummary> page = orderHistoryService.getOrderHistory(createUser("history").getId(), null, null);
+
+        assertThat(page.items()).isEmpty();
+        assertThat(page.hasNext()).isFalse();
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        Long userId = createUser("history").getId();
+        assertThatThrownBy(() -> orderHistoryService.getOrderHistory(userId, "not a cursor", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Order order(User user, Product product, LocalDateTime date) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setOrderDate(date);
+        order.setTotalQuantity(1);
+        order.setTotalPrice(product.getPrice());
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(1);
+        item.setUnitPrice(product.getPrice());
+        item.setProductName("Name at checkout");
+        item.setProductSku(product.getSku());
+        order.getOrderItems().add(item);
+        return orderRepository.save(order);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class OrderItemSnapshotBackfillTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private OrderItemSnapshotBackfill orderItemSnapshotBackfill;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void fillsLegacyLinesFromTheProductAndLeavesSnapshottedOnesAlone() {
+        Category category = new Category();
+        category.setName("backfill-" + UUID.randomUUID());
+        category = categoryRepository.save(category);
+        Product lamp = createProduct("FILL", "Desk lamp", new BigDecimal("19.99"), 10);
+        lamp.setImageUrl("https://img.example/lamp.png");
+        lamp.setCategory(category);
+        lamp = productRepository.save(lamp);
+        Product bulb = createProduct("FILL", "Bulb", new BigDecimal("0.10"), 10);
+
+        Order order = new Order();
+        order.setUser(createUser("backfill"));
+        order.setTotalQuantity(3);
+        order.setTotalPrice(new BigDecimal("40.08"));
+        // Written before checkout copied the product onto the line
+        OrderItem legacy = item(order, lamp, 2, null);
+        OrderItem legacyWithoutCategory = item(order, bulb, 1, null);
+        OrderItem snapshotted = item(order, lamp, 1, "Lamp at checkout");
+        order = orderRepository.save(order);
+
+        assertThat(orderItemSnapshotBackfill.backfill()).isGreaterThanOrEqualTo(2);
+
+        assertThat(line(order, legacy)).containsExactly(entry("product_name", "Desk lamp"),
+                entry("product_sku", lamp.getSku()), entry("product_image_url", "https://img.example/lamp.png"),
+                entry("category_id", category.getId()));
+        assertThat(line(order, legacyWithoutCategory)).containsExactly(entry("product_name", "Bulb"),
+                entry("product_sku", bulb.getSku()), entry("product_image_url", null), entry("category_id", null));
+        assertThat(line(order, snapshotted)).containsExactly(entry("product_name", "Lamp at checkout"),
+                entry("product_sku", null), entry("product_image_url", null), entry("category_id", null));
+        assertThat(orderItemSnapshotBackfill.backfill()).isZero();
+    }
+
+    private Map<String, Object> line(Order order, OrderItem item) {
+        return jdbcTemplate.queryForMap("SELECT product_name, product_sku, product_image_url, category_id "
+                + "FROM order_items WHERE order_id = ? AND product_id = ? AND quantity = ?",
+                order.getId(), item.getProduct().getId(), item.getQuantity());
+    }
+
+    private static OrderItem item(Order order, Product product, int quantity, String productName) {
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setProductName(productName);
+        order.getOrderItems().add(item);
+        return item;
+    }
+}
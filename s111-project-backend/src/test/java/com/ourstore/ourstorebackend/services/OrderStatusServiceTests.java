@@ -0,0 +1,112 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.BulkStatusResult;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class OrderStatusServiceTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private OrderStatusService orderStatusService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void bulkTransitionReportsAnOutcomePerIdInRequestOrder() {
+        User user = createUser("admin-orders");
+        Long first = order(user, Order.OrderStatus.PROCESSING);
+        Long shipped = order(user, Order.OrderStatus.SHIPPED);
+        Long pending = order(user, Order.OrderStatus.PENDING);
+        Long second = order(user, Order.OrderStatus.PROCESSING);
+        Long missing = -1L;
+
+        BulkStatusResult result = orderStatusService.transition(
+                List.of(first, shipped, pending, missing, second, first), Order.OrderStatus.SHIPPED);
+
+        assertThat(result.updated()).isEqualTo(2);
+        assertThat(result.results())
+                .extracting(BulkStatusResult.Item::id, BulkStatusResult.Item::outcome,
+                        BulkStatusResult.Item::previousStatus)
+                .containsExactly(
+                        tuple(first, BulkStatusResult.Outcome.UPDATED, Order.OrderStatus.PROCESSING),
+                        tuple(shipped, BulkStatusResult.Outcome.UNCHANGED, Order.OrderStatus.SHIPPED),
+                        tuple(pending, BulkStatusResult.Outcome.INVALID_TRANSITION, Order.OrderStatus.PENDING),
+                        tuple(missing, BulkStatusResult.Outcome.NOT_FOUND, null),
+                        tuple(second, BulkStatusResult.Outcome.UPDATED, Order.OrderStatus.PROCESSING));
+        assertThat(status(first)).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(status(second)).isEqualTo(Order.OrderStatus.SHIPPED);
+        assertThat(status(pending)).isEqualTo(Order.OrderStatus.PENDING);
+    }
+
+    @Test
+    void bulkTransitionRecordsSalesChangesInTheOutbox() {
+        User user = createUser("admin-orders");
+        Long delivered = order(user, Order.OrderStatus.DELIVERED);
+        Long processing = order(user, Order.OrderStatus.PROCESSING);
+
+        orderStatusService.transition(List.of(delivered), Order.OrderStatus.REFUNDED);
+        orderStatusService.transition(List.of(processing), Order.OrderStatus.SHIPPED);
+
+        assertThat(outboxEvents(delivered)).containsExactly(OutboxService.ORDER_VOIDED);
+        assertThat(outboxEvents(processing)).isEmpty();
+    }
+
+    @Test
+    void bulkTransitionRejectsCancellationAndBadRequests() {
+        Long id = order(createUser("admin-orders"), Order.OrderStatus.PENDING);
+
+        assertThatThrownBy(() -> orderStatusService.transition(List.of(id), Order.OrderStatus.CANCELLED))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderStatusService.transition(List.of(), Order.OrderStatus.SHIPPED))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> orderStatusService.transition(List.of(id), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(status(id)).isEqualTo(Order.OrderStatus.PENDING);
+    }
+
+    @Test
+    void cancelledOrdersCannotBeReopened() {
+        Long id = order(createUser("admin-orders"), Order.OrderStatus.PENDING);
+        orderStatusService.updateStatus(id, Order.OrderStatus.CANCELLED);
+
+        for (Order.OrderStatus status : List.of(Order.OrderStatus.PENDING, Order.OrderStatus.PROCESSING)) {
+            assertThatThrownBy(() -> orderStatusService.updateStatus(id, status))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(status(id)).isEqualTo(Order.OrderStatus.CANCELLED);
+        assertThat(outboxEvents(id)).containsExactly(OutboxService.ORDER_VOIDED);
+    }
+
+    private Long order(User user, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus(status);
+        order.setTotalPrice(BigDecimal.TEN);
+        return orderRepository.save(order).getId();
+    }
+
+    private Order.OrderStatus status(Long id) {
+        return orderRepository.findById(id).orElseThrow().getStatus();
+    }
+
+    private List<String> outboxEvents(Long orderId) {
+        return jdbcTemplate.queryForList("SELECT event_type FROM outbox_events WHERE aggregate_id = ?",
+                String.class, orderId);
+    }
+}
@@ -0,0 +1,139 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.OutboxEvent;
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.awaitility.Awaitility.await;
+
+@Import(OutboxDispatcherTests.Handlers.class)
+@TestPropertySource(properties = {
+        "ourstore.outbox.poll-interval=50ms",
+        "ourstore.outbox.initial-backoff=10ms",
+        "ourstore.outbox.max-backoff=40ms",
+        "ourstore.outbox.max-attempts=4"
+})
+class OutboxDispatcherTests extends MySqlIntegrationTest {
+
+    private static final String FLAKY = "TestFlaky";
+    private static final String BROKEN = "TestBroken";
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private CountingHandler handler;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Fails the first two deliveries of a flaky event and every delivery of a broken one
+    static class CountingHandler implements OutboxHandler {
+
+        private final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+
+        @Override
+        public Set<String> eventTypes() {
+            return Set.of(FLAKY, BROKEN);
+        }
+
+        @Override
+        public void handle(OutboxEvent event, JsonNode payload) {
+            int call = calls.computeIfAbsent(event.getAggregateId(), id -> new AtomicInteger()).incrementAndGet();
+            if (event.getEventType().equals(BROKEN) || call <= 2) {
+                throw new IllegalStateException("failure " + call);
+            }
+        }
+
+        int calls(Long aggregateId) {
+            return calls.getOrDefault(aggregateId, new AtomicInteger()).get();
+        }
+    }
+
+    @TestConfiguration
+    static class Handlers {
+
+        @Bean
+        CountingHandler countingHandler() {
+            return new CountingHandler();
+        }
+    }
+
+    // Contexts cached by other test classes keep polling the same tables, so this one
+    // holds every partition for the length of the test
+    @BeforeEach
+    void leaseEveryPartition() {
+        outboxDispatcher.poll();
+        jdbcTemplate.update("UPDATE outbox_leases SET owner = ?, lease_until = ?", outboxDispatcher.owner(),
+                Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)));
+    }
+
+    @AfterEach
+    void releaseLeases() {
+        jdbcTemplate.update("UPDATE outbox_leases SET owner = NULL, lease_until = ? WHERE owner = ?",
+                Timestamp.valueOf(LocalDateTime.now()), outboxDispatcher.owner());
+    }
+
+    @Test
+    void anEventThatFailsTwiceIsDoneOnTheThirdAttempt() {
+        Long aggregateId = publish(FLAKY);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> "DONE".equals(event(aggregateId).get("status")));
+
+        assertThat(event(aggregateId)).contains(entry("attempts", 3), entry("last_error", null));
+        assertThat(handler.calls(aggregateId)).isEqualTo(3);
+    }
+
+    @Test
+    void anEventThatAlwaysFailsIsParkedAfterMaxAttempts() throws InterruptedException {
+        Long aggregateId = publish(BROKEN);
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> "FAILED".equals(event(aggregateId).get("status")));
+        // Parked events are not picked up again
+        Thread.sleep(300);
+
+        assertThat(event(aggregateId)).contains(entry("status", "FAILED"), entry("attempts", 4),
+                entry("last_error", "failure 4"));
+        assertThat(handler.calls(aggregateId)).isEqualTo(4);
+    }
+
+    private Long publish(String eventType) {
+        long aggregateId = SnowflakeIds.next();
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> outboxService.publish(eventType, aggregateId, Map.of("aggregateId", aggregateId)));
+        return aggregateId;
+    }
+
+    private Map<String, Object> event(Long aggregateId) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, attempts, last_error FROM outbox_events WHERE aggregate_id = ?", aggregateId);
+    }
+}
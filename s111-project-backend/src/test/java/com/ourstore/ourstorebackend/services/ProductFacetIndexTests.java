@@ -0,0 +1,104 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductFacetIndexTests {
+
+    private static final ProductFacetIndex.Query ALL = new ProductFacetIndex.Query(null, null, null, null);
+
+    @Test
+    void pagesInIdOrderWhateverTheSlotOrder() {
+        ProductFacetIndex index = new ProductFacetIndex();
+        List<Long> ids = new ArrayList<>(LongStream.rangeClosed(1, 50).boxed().toList());
+        Collections.shuffle(ids, new Random(7));
+        ids.forEach(id -> index.upsert(product(id, id % 5 == 0 ? 1L : 2L)));
+
+        // Broad enough to walk the id order
+        assertThat(walk(index, ALL, 7)).containsExactlyElementsOf(LongStream.rangeClosed(1, 50).boxed().toList());
+        // Selective enough that the smallest ids are collected from the matches
+        ProductFacetIndex.Query fifths = new ProductFacetIndex.Query(Set.of(1L), null, null, null);
+        assertThat(walk(index, fifths, 3)).containsExactlyElementsOf(
+                LongStream.rangeClosed(1, 10).map(i -> i * 5).boxed().toList());
+    }
+
+    @Test
+    void cursorSurvivesRebuildAndSlotReuse() {
+        ProductFacetIndex index = new ProductFacetIndex();
+        for (long id = 1; id <= 30; id++) {
+            index.upsert(product(id, 1L));
+        }
+        ProductFacetIndex.Result first = index.query(ALL, null, 10);
+        assertThat(first.productIds()).containsExactlyElementsOf(LongStream.rangeClosed(1, 10).boxed().toList());
+
+        // Free slots get reused by a newer product, then a rebuild reassigns every slot
+        index.remove(3L);
+        index.remove(4L);
+        index.upsert(product(31, 1L));
+        ProductIndex.Rebuild rebuild = index.startRebuild();
+        for (long id = 31; id >= 1; id--) {
+            if (id != 3 && id != 4) {
+                rebuild.add(product(id, 1L));
+            }
+        }
+        rebuild.commit();
+
+        List<Long> rest = new ArrayList<>();
+        Long after = first.lastId();
+        do {
+            ProductFacetIndex.Result page = index.query(ALL, after, 10);
+            rest.addAll(page.productIds());
+            after = page.lastId();
+        } while (after != null);
+        assertThat(rest).containsExactlyElementsOf(LongStream.rangeClosed(11, 31).boxed().toList());
+    }
+
+    @Test
+    void countsIgnoreTheFacetsOwnSelection() {
+        ProductFacetIndex index = new ProductFacetIndex();
+        index.upsert(product(1, 1L));
+        index.upsert(product(2, 1L));
+        index.upsert(product(3, 2L));
+
+        ProductFacetIndex.Result result = index.query(new ProductFacetIndex.Query(Set.of(1L), null, null, null), null, 10);
+
+        assertThat(result.total()).isEqualTo(2);
+        assertThat(result.lastId()).isNull();
+        assertThat(result.facets().get("category")).containsEntry("1", 2).containsEntry("2", 1);
+    }
+
+    private static List<Long> walk(ProductFacetIndex index, ProductFacetIndex.Query query, int size) {
+        List<Long> walked = new ArrayList<>();
+        Long after = null;
+        do {
+            ProductFacetIndex.Result page = index.query(query, after, size);
+            walked.addAll(page.productIds());
+            after = page.lastId();
+        } while (after != null);
+        return walked;
+    }
+
+    private static Product product(long id, long categoryId) {
+        Category category = new Category();
+        category.setId(categoryId);
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setStockQuantity(1);
+        product.setCategory(category);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.ImportReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class ProductImportServiceTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void importsValidRowsAndReportsEveryBadOneByLine() {
+        String prefix = "IMP-" + UUID.randomUUID() + "-";
+        String csv = "sku,name,description,price,stockQuantity\n"
+                + prefix + "1,\"Desk, oak\",\"Says \"\"solid\"\"\",129.90,4\n"
+                + prefix + "2,Lamp,,abc,1\n"
+                + prefix + "3,,No name,5.00,1\n"
+                + prefix + "4,\"Two\nlines\",,9.99,\n"
+                + prefix + "5,Chair,,-1,2\n";
+
+        ImportReport report = productImportService.importProducts(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ProductImportService.Format.CSV);
+
+        assertThat(report.status()).isEqualTo("COMPLETED");
+        assertThat(report.rowsRead()).isEqualTo(5);
+        assertThat(report.rowsUpserted()).isEqualTo(2);
+        assertThat(report.errorCount()).isEqualTo(3);
+        // The quoted line break in row 4 moves the last row to line 7
+        assertThat(report.errors())
+                .extracting(ImportReport.RowError::line, ImportReport.RowError::sku, ImportReport.RowError::message)
+                .containsExactly(
+                        tuple(3L, prefix + "2", "invalid number"),
+                        tuple(4L, prefix + "3", "name is required"),
+                        tuple(7L, prefix + "5", "price must be between 0 and 99999999.99 with at most 2 decimals"));
+
+        Map<String, Object> desk = product(prefix + "1");
+        assertThat(desk).containsEntry("name", "Desk, oak")
+                .containsEntry("description", "Says \"solid\"")
+                .containsEntry("price", new BigDecimal("129.90"))
+                .containsEntry("stock_quantity", 4);
+        assertThat(product(prefix + "4")).containsEntry("name", "Two\nlines").containsEntry("stock_quantity", 0);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM products WHERE sku LIKE ?",
+                Integer.class, prefix + "%")).isEqualTo(2);
+    }
+
+    private Map<String, Object> product(String sku) {
+        return jdbcTemplate.queryForMap(
+                "SELECT name, description, price, stock_quantity FROM products WHERE sku = ?", sku);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+    private static final String[] WORDS = {"phone", "case", "blue", "red", "pro", "max", "mini", "laptop", "stand"};
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.upsert(product(1, "Leather case", "Fits every phone"));
+        index.upsert(product(2, "Phone stand", "Aluminium"));
+
+        assertThat(index.search("phone", 10).productIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void dropsRemovedAndDeactivatedProducts() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.upsert(product(1, "Blue phone", null));
+        index.upsert(product(2, "Red phone", null));
+        index.upsert(product(3, "Phone case", null));
+
+        index.remove(1L);
+        Product inactive = product(3, "Phone case", null);
+        inactive.setActive(false);
+        index.upsert(inactive);
+
+        assertThat(index.search("phone", 10).productIds()).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    // Random upserts and removes must leave the same postings a fresh rebuild produces
+    @Test
+    void incrementalChangesMatchARebuild() {
+        Random random = new Random(42);
+        ProductSearchIndex live = new ProductSearchIndex();
+        List<Product> current = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            current.add(randomProduct(i, random));
+            live.upsert(current.get(i));
+        }
+        for (int step = 0; step < 2000; step++) {
+            int id = random.nextInt(current.size());
+            if (random.nextInt(4) == 0) {
+                live.remove((long) id);
+                Product removed = randomProduct(id, random);
+                removed.setActive(false);
+                current.set(id, removed);
+            } else {
+                current.set(id, randomProduct(id, random));
+                live.upsert(current.get(id));
+            }
+        }
+
+        ProductSearchIndex rebuilt = new ProductSearchIndex();
+        ProductIndex.Rebuild rebuild = rebuilt.startRebuild();
+        current.forEach(rebuild::add);
+        rebuild.commit();
+
+        assertThat(live.size()).isEqualTo(rebuilt.size());
+        for (String word : WORDS) {
+            ProductSearchIndex.Hits expected = rebuilt.search(word, 1000);
+            ProductSearchIndex.Hits actual = live.search(word, 1000);
+            assertThat(actual.totalHits()).as(word).isEqualTo(expected.totalHits());
+            assertThat(actual.productIds()).as(word).containsExactlyElementsOf(expected.productIds());
+        }
+    }
+
+    private static Product randomProduct(long id, Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+            name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return product(id, name.toString().trim(), WORDS[random.nextInt(WORDS.length)]);
+    }
+
+    private static Product product(long id, String name, String description) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setDescription(description);
+        product.setSku("SKU-" + id);
+        product.setActive(true);
+        return product;
+    }
+}
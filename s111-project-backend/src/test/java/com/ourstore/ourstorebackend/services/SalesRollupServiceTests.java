@@ -0,0 +1,127 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.entities.Category;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.entities.OrderItem;
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.entities.SnowflakeIds;
+import com.ourstore.ourstorebackend.entities.User;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import com.ourstore.ourstorebackend.repositories.OrderRepository;
+import com.ourstore.ourstorebackend.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesRollupServiceTests extends MySqlIntegrationTest {
+
+    @Autowired
+    private SalesRollupService salesRollupService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Category before;
+    private Category after;
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void createCatalog() {
+        before = category();
+        after = category();
+        product = createProduct("ROLL", "Rollup item", new BigDecimal("2.50"), 10);
+        product.setCategory(before);
+        product = productRepository.save(product);
+        user = createUser("rollup");
+    }
+
+    @Test
+    void checkoutSnapshotsTheCategory() {
+        cartStore.addItem(user.getId(), product.getId(), 1);
+        Order order = checkoutService.placeOrder(user.getId()).orElseThrow();
+
+        Long categoryId = jdbcTemplate.queryForObject("SELECT category_id FROM order_items WHERE order_id = ?",
+                Long.class, order.getId());
+        assertThat(categoryId).isEqualTo(before.getId());
+    }
+
+    // Events are applied by hand here; the order is saved directly, so the outbox has none
+    @Test
+    void salesStayWithTheCategoryAtCheckoutWhenTheProductMoves() {
+        Long orderId = order(3);
+        Long placed = SnowflakeIds.next();
+
+        assertThat(salesRollupService.applyOrder(placed, orderId, 1)).isTrue();
+        assertThat(salesRollupService.applyOrder(placed, orderId, 1)).isFalse();
+        assertThat(units(before)).isEqualTo(3);
+
+        product.setCategory(after);
+        productRepository.save(product);
+
+        salesRollupService.rebuild();
+        assertThat(units(before)).isEqualTo(3);
+        assertThat(units(after)).isZero();
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        order.setStatus(Order.OrderStatus.CANCELLED);
+        orderRepository.save(order);
+        assertThat(salesRollupService.applyOrder(SnowflakeIds.next(), orderId, -1)).isTrue();
+        assertThat(units(before)).isZero();
+        assertThat(units(after)).isZero();
+
+        salesRollupService.rebuild();
+        assertThat(units(before)).isZero();
+        assertThat(units(after)).isZero();
+    }
+
+    private Long order(int quantity) {
+        Order order = new Order();
+        order.setUser(user);
+        order.setTotalQuantity(quantity);
+        order.setTotalPrice(product.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        item.setUnitPrice(product.getPrice());
+        item.setProductName(product.getName());
+        item.setCategoryId(before.getId());
+        order.getOrderItems().add(item);
+        return orderRepository.save(order).getId();
+    }
+
+    private long units(Category category) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(units), 0) FROM sales_daily_category WHERE category_id = ?",
+                Long.class, category.getId());
+    }
+
+    private Category category() {
+        Category category = new Category();
+        category.setName("rollup-" + UUID.randomUUID());
+        return categoryRepository.save(category);
+    }
+}
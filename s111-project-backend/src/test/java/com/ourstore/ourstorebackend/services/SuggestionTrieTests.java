@@ -0,0 +1,78 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.entities.Product;
+import com.ourstore.ourstorebackend.repositories.CategoryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SuggestionTrieTests {
+
+    private static final String[] WORDS = {"galaxy", "gaming", "game", "pro", "phone", "pod", "max", "mini"};
+
+    @Test
+    void findsNamesFromAnyWordStartBestRatedFirst() {
+        SuggestionTrie trie = new SuggestionTrie(mock(CategoryRepository.class));
+        trie.upsert(product(1, "Samsung Galaxy S24", 4.0, 10));
+        trie.upsert(product(2, "Galaxy Buds", 4.8, 100));
+        trie.upsert(product(3, "Pixel 8", 5.0, 100));
+
+        assertThat(trie.suggest("gal", 8)).extracting(SuggestionTrie.Suggestion::id).containsExactly(2L, 1L);
+    }
+
+    // Adds merge into the cached top lists; changes and removals recompute them. Both
+    // must leave every prefix with the same suggestions a rebuild produces.
+    @Test
+    void incrementalChangesMatchARebuild() {
+        Random random = new Random(3);
+        SuggestionTrie live = new SuggestionTrie(mock(CategoryRepository.class));
+        List<Product> current = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            current.add(randomProduct(i, random));
+            live.upsert(current.get(i));
+        }
+        for (int step = 0; step < 1000; step++) {
+            int id = random.nextInt(current.size());
+            if (random.nextInt(5) == 0) {
+                live.remove((long) id);
+                current.get(id).setActive(false);
+            } else {
+                current.set(id, randomProduct(id, random));
+                live.upsert(current.get(id));
+            }
+        }
+
+        SuggestionTrie rebuilt = new SuggestionTrie(mock(CategoryRepository.class));
+        ProductIndex.Rebuild rebuild = rebuilt.startRebuild();
+        current.forEach(rebuild::add);
+        rebuild.commit();
+
+        assertThat(live.nodeCount()).isEqualTo(rebuilt.nodeCount());
+        for (String word : WORDS) {
+            for (int length = 1; length <= word.length(); length++) {
+                String prefix = word.substring(0, length);
+                assertThat(live.suggest(prefix, 8)).as(prefix).isEqualTo(rebuilt.suggest(prefix, 8));
+            }
+        }
+    }
+
+    private static Product randomProduct(long id, Random random) {
+        String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+        return product(id, name, random.nextInt(51) / 10.0, random.nextInt(50));
+    }
+
+    private static Product product(long id, String name, double rating, int reviews) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setAverageRating(rating);
+        product.setReviewCount(reviews);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,223 @@
+package com.ourstore.ourstorebackend.services;
+
+import com.ourstore.ourstorebackend.MySqlIntegrationTest;
+import com.ourstore.ourstorebackend.dto.CartView;
+import com.ourstore.ourstorebackend.entities.Order;
+import com.ourstore.ourstorebackend.repositories.ShoppingCartRepository;
+import com.ourstore.ourstorebackend.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+// The scheduled flush is pushed out so that each test decides when carts are written
+@TestPropertySource(properties = {
+        "ourstore.cart.write-behind.enabled=true",
+        "ourstore.cart.write-behind.flush-interval=1h"
+})
+class WriteBehindCartStoreTests extends MySqlIntegrationTest {
+
+    private static final Path JOURNAL_DIR = createTempDirectory();
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CatalogService catalogService;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private ShoppingCartRepository shoppingCartRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("ourstore.cart.write-behind.journal-dir", JOURNAL_DIR::toString);
+    }
+
+    @Test
+    void addsReachTheDatabaseOnlyWithTheFlush() {
+        assertThat(cartStore).isInstanceOf(WriteBehindCartStore.class);
+        Long userId = createUser("wb").getId();
+        Long lamp = createProduct("WB", "Desk lamp", new BigDecimal("19.99"), 10).getId();
+        Long bulb = createProduct("WB", "Bulb", new BigDecimal("0.10"), 10).getId();
+
+        cartStore.addItem(userId, lamp, 2);
+        cartStore.addItem(userId, bulb, 3);
+        CartView cart = cartStore.addItem(userId, lamp, 1);
+
+        assertThat(cart.totalItems()).isEqualTo(6);
+        assertThat(cart.totalPrice()).isEqualByComparingTo("60.27");
+        assertThat(savedLines(userId)).isEmpty();
+
+        store().flush();
+
+        assertThat(savedLines(userId)).containsOnly(entry(lamp, 3), entry(bulb, 3));
+        Map<String, Object> saved = jdbcTemplate.queryForMap(
+                "SELECT total_items, total_price FROM shopping_carts WHERE user_id = ?", userId);
+        assertThat(saved.get("total_items")).isEqualTo(6);
+        assertThat((BigDecimal) saved.get("total_price")).isEqualByComparingTo("60.27");
+        assertThat(journalRecords(JOURNAL_DIR, userId)).isEmpty();
+    }
+
+    @Test
+    void aRebuiltStoreReplaysTheJournalLeftByACrash(@TempDir Path dir) throws IOException {
+        Long userId = createUser("wb").getId();
+        Long lamp = createProduct("WB", "Desk lamp", new BigDecimal("19.99"), 10).getId();
+        Long bulb = createProduct("WB", "Bulb", new BigDecimal("0.10"), 10).getId();
+        WriteBehindCartStore crashed = store(dir);
+        CartView cart = crashed.addItem(userId, lamp, 2);
+        crashed.addItem(userId, bulb, 1);
+        crashed.addItem(userId, bulb, 3);
+        crashed.removeItem(userId, cart.items().get(0).id());
+        // The process dies here, before any flush
+        assertThat(savedLines(userId)).isEmpty();
+
+        WriteBehindCartStore rebuilt = store(dir);
+
+        assertThat(savedLines(userId)).containsOnly(entry(bulb, 4));
+        assertThat(rebuilt.get(userId).items()).singleElement()
+                .satisfies(line -> assertThat(line.quantity()).isEqualTo(4));
+        assertThat(journalRecords(dir, userId)).isEmpty();
+    }
+
+    @Test
+    void checkoutBuysWhatIsOnlyInMemory() {
+        Long userId = createUser("wb").getId();
+        Long lamp = createProduct("WB", "Desk lamp", new BigDecimal("19.99"), 10).getId();
+        cartStore.addItem(userId, lamp, 2);
+        assertThat(savedLines(userId)).isEmpty();
+
+        Order order = checkoutService.placeOrder(userId).orElseThrow();
+
+        assertThat(order.getTotalQuantity()).isEqualTo(2);
+        assertThat(order.getTotalPrice()).isEqualByComparingTo("39.98");
+        assertThat(cartStore.get(userId).items()).isEmpty();
+        store().flush();
+        assertThat(savedLines(userId)).isEmpty();
+    }
+
+    @Test
+    void deletingAProductDropsItsUnflushedLines() {
+        Long userId = createUser("wb").getId();
+        Long otherUserId = createUser("wb").getId();
+        Long doomed = createProduct("WB", "Discontinued", new BigDecimal("5.00"), 10).getId();
+        Long kept = createProduct("WB", "Kept", new BigDecimal("1.00"), 10).getId();
+        cartStore.addItem(userId, doomed, 1);
+        cartStore.addItem(userId, kept, 2);
+        cartStore.addItem(otherUserId, kept, 1);
+
+        catalogService.deleteProduct(doomed);
+        store().flush();
+
+        assertThat(cartStore.get(userId).items()).singleElement()
+                .satisfies(line -> assertThat(line.product().id()).isEqualTo(kept));
+        assertThat(savedLines(userId)).containsOnly(entry(kept, 2));
+        assertThat(savedLines(otherUserId)).containsOnly(entry(kept, 1));
+        assertThat(journalRecords(JOURNAL_DIR, userId)).isEmpty();
+    }
+
+    @Test
+    void aCartThatCannotBeWrittenDoesNotHoldBackTheOthers() {
+        Long userId = createUser("wb").getId();
+        Long otherUserId = createUser("wb").getId();
+        Long doomed = createProduct("WB", "Discontinued", new BigDecimal("5.00"), 10).getId();
+        Long kept = createProduct("WB", "Kept", new BigDecimal("1.00"), 10).getId();
+        cartStore.addItem(userId, kept, 2);
+        Long doomedLineId = cartStore.addItem(userId, doomed, 1).items().get(1).id();
+        cartStore.addItem(otherUserId, kept, 1);
+        // Removed behind the catalog's back, so no event drops the line first
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", doomed);
+
+        store().flush();
+
+        assertThat(savedLines(otherUserId)).containsOnly(entry(kept, 1));
+        assertThat(savedLines(userId)).isEmpty();
+        assertThat(cartStore.get(userId).totalItems()).isEqualTo(3);
+        // The flushed segments are gone; the unwritten cart was journalled again in full
+        assertThat(journalRecords(JOURNAL_DIR, otherUserId)).isEmpty();
+        assertThat(journalRecords(JOURNAL_DIR, userId)).extracting(record -> record.split("\t")[1])
+                .containsExactly("CLEAR", "SET", "SET");
+
+        cartStore.removeItem(userId, doomedLineId);
+        store().flush();
+
+        assertThat(savedLines(userId)).containsOnly(entry(kept, 2));
+        assertThat(journalRecords(JOURNAL_DIR, userId)).isEmpty();
+    }
+
+    private WriteBehindCartStore store() {
+        return (WriteBehindCartStore) cartStore;
+    }
+
+    // A second store on the same database, as after a restart
+    private WriteBehindCartStore store(Path dir) throws IOException {
+        WriteBehindCartStore store = new WriteBehindCartStore(shoppingCartRepository, userRepository, catalogService,
+                jdbcTemplate, transactionManager, dir, false, 1000, Duration.ofMinutes(30));
+        store.afterPropertiesSet();
+        return store;
+    }
+
+    private Map<Long, Integer> savedLines(Long userId) {
+        Map<Long, Integer> lines = new HashMap<>();
+        jdbcTemplate.query("SELECT ci.product_id, ci.quantity FROM cart_items ci "
+                        + "JOIN shopping_carts sc ON sc.id = ci.shopping_cart_id WHERE sc.user_id = ?",
+                rs -> {
+                    lines.put(rs.getLong(1), rs.getInt(2));
+                }, userId);
+        return lines;
+    }
+
+    private static List<String> journalRecords(Path dir, Long userId) {
+        try (Stream<Path> segments = Files.list(dir)) {
+            List<String> records = new ArrayList<>();
+            for (Path segment : segments.sorted().toList()) {
+                for (String record : CartJournal.read(segment)) {
+                    if (record.split("\t")[2].equals(userId.toString())) {
+                        records.add(record);
+                    }
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("cart-journal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
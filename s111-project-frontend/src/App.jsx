@@ -91,30 +91,31 @@ function App() {
 
   const fetchProducts = async () => {
     try {
-      const response = await fetch(`${API_BASE_URL}/products`);
+      const response = await fetch(`${API_BASE_URL}/products?size=100`);
       const data = await response.json().catch(() => ({ message: 'Unexpected response from server.' }));
       if (!response.ok) {
         console.error('Failed to fetch products:', data?.message || `Failed to fetch products (${response.status})`);
         return;
       }
-      if (Array.isArray(data) && data.length === 0) {
+      const items = Array.isArray(data?.items) ? data.items : [];
+      if (items.length === 0) {
         if (isLoggedIn && isAdmin && token) {
           const seedResp = await authFetch(`${API_BASE_URL}/products/add-dummy-data`, {
             method: 'POST',
             headers: { 'Content-Type': 'application/json' },
           });
           if (seedResp.ok) {
-            const updatedResponse = await fetch(`${API_BASE_URL}/products`);
+            const updatedResponse = await fetch(`${API_BASE_URL}/products?size=100`);
             const updatedData = await updatedResponse.json();
-            setProducts(Array.isArray(updatedData) ? updatedData : []);
+            setProducts(Array.isArray(updatedData?.items) ? updatedData.items : []);
           } else {
             setProducts([]);
           }
         } else {
           setProducts([]);
         }
-      } else if (Array.isArray(data)) {
-        setProducts(data);
+      } else {
+        setProducts(items);
       }
     } catch (error) {
       console.error('Network error:', error);
@@ -242,7 +243,7 @@ function App() {
       const response = await authFetch(`${API_BASE_URL}/orders/${uid}`);
       if (!response.ok) return;
       const data = await response.json();
-      setOrders(data || []);
+      setOrders(Array.isArray(data?.items) ? data.items : []);
     } catch {
       // silent
     }
@@ -366,8 +367,9 @@ function App() {
   };
 
   const handleAdminSaveProduct = async () => {
+    // Edits send back the version they were loaded at; the server rejects stale ones
     const { id, ...productData } = adminForm;
-    const url = id ? `${API_BASE_URL}/products/${id}` : `${API_BASE_URL}/products`;
+    const url = id ? `${API_BASE_URL}/admin/products/${id}` : `${API_BASE_URL}/products`;
     const method = id ? 'PUT' : 'POST';
 
     try {
@@ -377,6 +379,11 @@ function App() {
         body: JSON.stringify(productData),
       });
       const data = await response.json();
+      if (response.status === 409) {
+        setAdminMessage('This product was changed since you opened it. Reload it and edit again.');
+        fetchProducts();
+        return;
+      }
       if (!response.ok) {
         setAdminMessage(data?.message || 'Failed to save product.');
         return;
@@ -390,7 +397,7 @@ function App() {
   };
 
   const handleAdminEditProduct = (product) => {
-    setAdminForm({ ...product, price: product.price.toString() });
+    setAdminForm({ ...product, price: product.price.toString(), version: product.version });
   };
 
   const handleAdminDeleteProduct = async (productId) => {